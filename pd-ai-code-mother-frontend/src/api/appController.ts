@@ -110,6 +110,34 @@ export async function deployApp(body: API.AppDeployRequest, options?: { [key: st
   })
 }
 
+/** 此处后端没有提供注释 POST /app/deploy/async */
+export async function deployAppAsync(body: API.AppDeployRequest, options?: { [key: string]: any }) {
+  return request<API.BaseResponseDeployJobVO>('/app/deploy/async', {
+    method: 'POST',
+    headers: {
+      'Content-Type': 'application/json',
+    },
+    data: body,
+    ...(options || {}),
+  })
+}
+
+/** 此处后端没有提供注释 GET /app/deploy/job/${param0} */
+export async function getDeployJob(
+  // 叠加生成的Param类型 (非body参数swagger默认没有生成对象)
+  params: API.getDeployJobParams,
+  options?: { [key: string]: any }
+) {
+  const { jobId: param0, ...queryParams } = params
+  return request<API.BaseResponseDeployJobVO>(`/app/deploy/job/${param0}`, {
+    method: 'GET',
+    params: {
+      ...queryParams,
+    },
+    ...(options || {}),
+  })
+}
+
 /** 此处后端没有提供注释 GET /app/get/vo */
 export async function getAppVoById(
   // 叠加生成的Param类型 (非body参数swagger默认没有生成对象)
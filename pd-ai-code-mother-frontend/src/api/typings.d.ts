@@ -61,6 +61,12 @@ declare namespace API {
     message?: string
   }
 
+  type BaseResponseDeployJobVO = {
+    code?: number
+    data?: DeployJobVO
+    message?: string
+  }
+
   type BaseResponseLoginUserVO = {
     code?: number
     data?: LoginUserVO
@@ -79,6 +85,12 @@ declare namespace API {
     message?: string
   }
 
+  type BaseResponseChatHistoryCursorPageVO = {
+    code?: number
+    data?: ChatHistoryCursorPageVO
+    message?: string
+  }
+
   type BaseResponsePageChatHistory = {
     code?: number
     data?: PageChatHistory
@@ -120,6 +132,12 @@ declare namespace API {
     isDelete?: number
   }
 
+  type ChatHistoryCursorPageVO = {
+    records?: ChatHistory[]
+    nextCursor?: string
+    hasMore?: boolean
+  }
+
   type ChatHistoryQueryRequest = {
     pageNum?: number
     pageSize?: number
@@ -142,6 +160,17 @@ declare namespace API {
     id?: number
   }
 
+  type DeployJobVO = {
+    jobId?: string
+    appId?: number
+    status?: string
+    statusText?: string
+    deployUrl?: string
+    errorMessage?: string
+    createTime?: string
+    finishTime?: string
+  }
+
   type getAppVOByIdByAdminParams = {
     id: number
   }
@@ -150,6 +179,10 @@ declare namespace API {
     id: number
   }
 
+  type getDeployJobParams = {
+    jobId: string
+  }
+
   type getUserByIdParams = {
     id: number
   }
@@ -158,6 +191,12 @@ declare namespace API {
     id: number
   }
 
+  type listAppChatHistoryByCursorParams = {
+    appId: number
+    pageSize?: number
+    cursor?: string
+  }
+
   type listAppChatHistoryParams = {
     appId: number
     pageSize?: number
@@ -0,0 +1,38 @@
+import { deployAppAsync, getDeployJob } from '@/api/appController'
+
+/**
+ * 部署任务状态轮询间隔（毫秒）
+ */
+const POLL_INTERVAL_MS = 2000
+
+/**
+ * 提交异步部署并轮询任务状态，直到部署结束
+ * @param appId 应用 ID
+ * @param onStatus 任务状态变化时的回调，参数为状态文本（如 "构建中"）
+ * @returns 部署地址，部署失败时抛出带有失败原因的错误
+ */
+export const deployAndWait = async (
+  appId: number,
+  onStatus?: (statusText: string) => void
+): Promise<string> => {
+  const submitRes = await deployAppAsync({ appId })
+  if (submitRes.data.code !== 0 || !submitRes.data.data?.jobId) {
+    throw new Error(submitRes.data.message || '提交部署失败')
+  }
+  let job = submitRes.data.data
+  while (job.status !== 'succeed' && job.status !== 'failed') {
+    if (job.statusText) {
+      onStatus?.(job.statusText)
+    }
+    await new Promise((resolve) => setTimeout(resolve, POLL_INTERVAL_MS))
+    const res = await getDeployJob({ jobId: job.jobId as string })
+    if (res.data.code !== 0 || !res.data.data) {
+      throw new Error(res.data.message || '查询部署状态失败')
+    }
+    job = res.data.data
+  }
+  if (job.status === 'failed' || !job.deployUrl) {
+    throw new Error(job.errorMessage || '部署失败')
+  }
+  return job.deployUrl
+}
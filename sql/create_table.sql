@@ -53,15 +53,39 @@ create table app
 -- 对话历史表
 create table chat_history
 (
-    id          bigint auto_increment comment 'id' primary key,
-    message     text                               not null comment '消息',
-    messageType varchar(32)                        not null comment 'user/ai',
-    appId       bigint                             not null comment '应用id',
-    userId      bigint                             not null comment '创建用户id',
-    createTime  datetime default CURRENT_TIMESTAMP not null comment '创建时间',
-    updateTime  datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
-    isDelete    tinyint  default 0                 not null comment '是否删除',
+    id           bigint auto_increment comment 'id' primary key,
+    message      text                               not null comment '消息',
+    messageType  varchar(32)                        not null comment 'user/ai',
+    appId        bigint                             not null comment '应用id',
+    userId       bigint                             not null comment '创建用户id',
+    inputTokens  int                                null comment '输入 Token 数（AI 消息）',
+    outputTokens int                                null comment '输出 Token 数（AI 消息）',
+    createTime   datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    updateTime   datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
+    isDelete     tinyint  default 0                 not null comment '是否删除',
     INDEX idx_appId (appId),                       -- 提升基于应用的查询性能
     INDEX idx_createTime (createTime),             -- 提升基于时间的查询性能
     INDEX idx_appId_createTime (appId, createTime) -- 游标查询核心索引
-) comment '对话历史' collate = utf8mb4_unicode_ci;
\ No newline at end of file
+) comment '对话历史' collate = utf8mb4_unicode_ci;
+
+-- 已有库升级：对话历史增加 Token 用量
+-- alter table chat_history
+--     add column inputTokens int null comment '输入 Token 数（AI 消息）' after userId,
+--     add column outputTokens int null comment '输出 Token 数（AI 消息）' after inputTokens;
+
+-- Token 用量汇总表（按用户、应用、日期汇总）
+create table if not exists app_token_usage
+(
+    id              bigint auto_increment comment 'id' primary key,
+    userId          bigint                             not null comment '用户id',
+    appId           bigint                             not null comment '应用id',
+    statDate        date                               not null comment '统计日期',
+    generationCount int      default 0                 not null comment '生成次数',
+    inputTokens     bigint   default 0                 not null comment '输入 Token 数',
+    outputTokens    bigint   default 0                 not null comment '输出 Token 数',
+    createTime      datetime default CURRENT_TIMESTAMP not null comment '创建时间',
+    updateTime      datetime default CURRENT_TIMESTAMP not null on update CURRENT_TIMESTAMP comment '更新时间',
+    UNIQUE KEY uk_userId_appId_statDate (userId, appId, statDate), -- 汇总写入的唯一键
+    INDEX idx_userId_statDate (userId, statDate),                  -- 用户用量查询
+    INDEX idx_appId (appId)                                        -- 应用用量查询
+) comment 'Token 用量汇总' collate = utf8mb4_unicode_ci;
@@ -0,0 +1,83 @@
+package com.pd.pdaicodemother.ai.tools;
+
+import cn.hutool.core.io.FileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 读取 Vue 项目目录结构的基准
+ * 目录包含源码、构建产物和 node_modules，与生成后安装过依赖的项目接近
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileDirReadToolBenchmark {
+
+    /**
+     * node_modules 中的文件数（0 表示尚未安装依赖）
+     */
+    @Param({"0", "5000"})
+    private int nodeModulesFiles;
+
+    private final FileDirReadTool fileDirReadTool = new FileDirReadTool();
+
+    private Path projectRoot;
+
+    @Setup
+    public void setup() throws IOException {
+        projectRoot = Files.createTempDirectory("vue_project_benchmark_");
+        write("package.json", "{}");
+        write("index.html", "<div id=\"app\"></div>");
+        write("vite.config.js", "export default {}");
+        write("src/main.js", "import { createApp } from 'vue'");
+        write("src/App.vue", "<template></template>");
+        write("src/router/index.js", "export default {}");
+        for (int i = 0; i < 40; i++) {
+            write("src/components/Component" + i + ".vue", "<template></template>");
+        }
+        for (int i = 0; i < 15; i++) {
+            write("src/pages/Page" + i + ".vue", "<template></template>");
+            write("src/assets/image" + i + ".svg", "<svg/>");
+        }
+        for (int i = 0; i < 20; i++) {
+            write("dist/assets/index-" + i + ".js", "");
+        }
+        for (int i = 0; i < nodeModulesFiles; i++) {
+            write("node_modules/package-" + (i / 50) + "/lib/file" + i + ".js", "");
+        }
+    }
+
+    @TearDown
+    public void cleanup() {
+        FileUtil.del(projectRoot);
+    }
+
+    @Benchmark
+    public String readDir() {
+        return fileDirReadTool.readDir(projectRoot.toString(), 0L);
+    }
+
+    private void write(String relativePath, String content) throws IOException {
+        Path path = projectRoot.resolve(relativePath);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+    }
+}
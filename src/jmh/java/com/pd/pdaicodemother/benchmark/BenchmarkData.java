@@ -0,0 +1,55 @@
+package com.pd.pdaicodemother.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 基准测试数据生成
+ */
+public final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    /**
+     * 生成接近指定大小的 AI 回复，包含 html / css / javascript 三个代码块和少量说明文字
+     *
+     * @param size 目标字符数
+     * @return 回复内容
+     */
+    public static String codeReply(int size) {
+        StringBuilder html = new StringBuilder("<!DOCTYPE html>\n<html lang=\"zh-CN\">\n<head>\n"
+                + "  <meta charset=\"UTF-8\">\n  <title>基准测试页面</title>\n</head>\n<body>\n");
+        StringBuilder css = new StringBuilder("body {\n  margin: 0;\n}\n");
+        StringBuilder js = new StringBuilder("document.addEventListener('DOMContentLoaded', () => {\n");
+        int line = 0;
+        while (html.length() + css.length() + js.length() < size) {
+            html.append("  <section class=\"card-").append(line).append("\"><h2>标题 ").append(line)
+                    .append("</h2><p>这是一段用于测试的 \"描述\" 文本 & 内容</p></section>\n");
+            if (line % 3 == 0) {
+                css.append(".card-").append(line).append(" {\n  padding: ").append(line % 16).append("px;\n}\n");
+                js.append("  document.querySelector('.card-").append(line).append("')?.classList.add('ready');\n");
+            }
+            line++;
+        }
+        html.append("</body>\n</html>");
+        js.append("});");
+        return "下面是完整的代码实现：\n\n```html\n" + html + "\n```\n\n```css\n" + css + "```\n\n```javascript\n" + js
+                + "\n```\n\n以上代码实现了一个简单的页面。";
+    }
+
+    /**
+     * 按固定字符数切分，模拟流式 token
+     *
+     * @param content   内容
+     * @param chunkSize 每片字符数
+     * @return 分片
+     */
+    public static List<String> chunks(String content, int chunkSize) {
+        List<String> chunks = new ArrayList<>(content.length() / chunkSize + 1);
+        for (int i = 0; i < content.length(); i += chunkSize) {
+            chunks.add(content.substring(i, Math.min(content.length(), i + chunkSize)));
+        }
+        return chunks;
+    }
+}
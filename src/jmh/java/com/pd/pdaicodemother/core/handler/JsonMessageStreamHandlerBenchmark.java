@@ -0,0 +1,128 @@
+package com.pd.pdaicodemother.core.handler;
+
+import cn.hutool.json.JSONUtil;
+import com.pd.pdaicodemother.ai.model.message.AiResponseMessage;
+import com.pd.pdaicodemother.ai.model.message.StreamMessage;
+import com.pd.pdaicodemother.ai.model.message.ToolExecutedMessage;
+import com.pd.pdaicodemother.ai.model.message.ToolRequestMessage;
+import com.pd.pdaicodemother.ai.tools.BaseTool;
+import com.pd.pdaicodemother.ai.tools.FileDeleteTool;
+import com.pd.pdaicodemother.ai.tools.FileDirReadTool;
+import com.pd.pdaicodemother.ai.tools.FileModifyTool;
+import com.pd.pdaicodemother.ai.tools.FileReadTool;
+import com.pd.pdaicodemother.ai.tools.FileWriteTool;
+import com.pd.pdaicodemother.ai.tools.ToolManager;
+import com.pd.pdaicodemother.benchmark.BenchmarkData;
+import com.pd.pdaicodemother.core.buffer.ResponseBuffer;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.service.tool.ToolExecution;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * VUE_PROJECT 流式消息处理的单条消息开销
+ * 每次调用处理一轮完整的消息序列（AI 响应片段 + 工具请求片段 + 工具执行结果），按消息数折算单条耗时
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonMessageStreamHandlerBenchmark {
+
+    private static final int MESSAGE_COUNT = 256;
+
+    /**
+     * AI 响应片段大小（字符）
+     */
+    @Param({"16", "64", "1024"})
+    private int chunkSize;
+
+    private JsonMessageStreamHandler handler;
+
+    private List<StreamMessage> aiResponseMessages;
+
+    private List<StreamMessage> toolMessages;
+
+    @Setup
+    public void setup() {
+        ToolManager toolManager = new ToolManager();
+        ReflectionTestUtils.setField(toolManager, "tools", new BaseTool[]{
+                new FileWriteTool(), new FileReadTool(), new FileModifyTool(), new FileDeleteTool(), new FileDirReadTool()
+        });
+        toolManager.initTools();
+        handler = new JsonMessageStreamHandler();
+        ReflectionTestUtils.setField(handler, "toolManager", toolManager);
+
+        aiResponseMessages = new ArrayList<>(MESSAGE_COUNT);
+        for (String chunk : BenchmarkData.chunks(BenchmarkData.codeReply(chunkSize * MESSAGE_COUNT), chunkSize)) {
+            if (aiResponseMessages.size() == MESSAGE_COUNT) {
+                break;
+            }
+            aiResponseMessages.add(new AiResponseMessage(chunk));
+        }
+        // 一次 writeFile：参数分片流式到达，最后是执行结果
+        String arguments = JSONUtil.toJsonStr(Map.of(
+                "relativeFilePath", "src/components/HelloWorld.vue",
+                "content", BenchmarkData.codeReply(4096)));
+        toolMessages = new ArrayList<>(MESSAGE_COUNT);
+        List<String> argumentChunks = BenchmarkData.chunks(arguments, Math.max(1, arguments.length() / (MESSAGE_COUNT - 1)));
+        for (String argumentChunk : argumentChunks.subList(0, Math.min(argumentChunks.size(), MESSAGE_COUNT - 1))) {
+            toolMessages.add(new ToolRequestMessage(ToolExecutionRequest.builder()
+                    .id("call_benchmark")
+                    .name("writeFile")
+                    .arguments(argumentChunk)
+                    .build()));
+        }
+        toolMessages.add(new ToolExecutedMessage(ToolExecution.builder()
+                .request(ToolExecutionRequest.builder()
+                        .id("call_benchmark")
+                        .name("writeFile")
+                        .arguments(arguments)
+                        .build())
+                .result("文件写入成功")
+                .build()));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGE_COUNT)
+    public void aiResponseChunks(Blackhole blackhole) {
+        process(aiResponseMessages, blackhole);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(MESSAGE_COUNT)
+    public void toolCallRound(Blackhole blackhole) {
+        process(toolMessages, blackhole);
+    }
+
+    private void process(List<StreamMessage> messages, Blackhole blackhole) {
+        // 阈值足够大，只测量内存中的拼接
+        ResponseBuffer responseBuffer = new ResponseBuffer(Integer.MAX_VALUE, System.getProperty("java.io.tmpdir"));
+        Set<String> seenToolIds = new HashSet<>();
+        for (StreamMessage message : messages) {
+            blackhole.consume(handler.handleStreamMessage(message, responseBuffer, seenToolIds));
+        }
+        responseBuffer.release();
+    }
+}
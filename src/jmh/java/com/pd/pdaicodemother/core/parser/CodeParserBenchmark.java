@@ -0,0 +1,73 @@
+package com.pd.pdaicodemother.core.parser;
+
+import com.pd.pdaicodemother.ai.model.HtmlCodeResult;
+import com.pd.pdaicodemother.ai.model.MultiFileCodeResult;
+import com.pd.pdaicodemother.benchmark.BenchmarkData;
+import com.pd.pdaicodemother.core.parser.impl.HtmlCodeParser;
+import com.pd.pdaicodemother.core.parser.impl.MultiFileCodeParser;
+import com.pd.pdaicodemother.core.parser.impl.MultiFileStreamingCodeParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 代码解析基准：整段正则解析与流式解析
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodeParserBenchmark {
+
+    /**
+     * 回复大小：10KB、256KB、2MB
+     */
+    @Param({"10240", "262144", "2097152"})
+    private int size;
+
+    private final HtmlCodeParser htmlCodeParser = new HtmlCodeParser();
+
+    private final MultiFileCodeParser multiFileCodeParser = new MultiFileCodeParser();
+
+    private String content;
+
+    private List<String> chunks;
+
+    @Setup
+    public void setup() {
+        content = BenchmarkData.codeReply(size);
+        chunks = BenchmarkData.chunks(content, 16);
+    }
+
+    @Benchmark
+    public HtmlCodeResult htmlParse() {
+        return htmlCodeParser.parseCode(content);
+    }
+
+    @Benchmark
+    public MultiFileCodeResult multiFileParse() {
+        return multiFileCodeParser.parseCode(content);
+    }
+
+    @Benchmark
+    public MultiFileCodeResult multiFileStreamingParse() {
+        MultiFileStreamingCodeParser parser = new MultiFileStreamingCodeParser();
+        for (String chunk : chunks) {
+            parser.feed(chunk);
+        }
+        return parser.finish();
+    }
+}
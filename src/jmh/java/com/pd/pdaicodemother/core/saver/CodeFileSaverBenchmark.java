@@ -0,0 +1,91 @@
+package com.pd.pdaicodemother.core.saver;
+
+import cn.hutool.core.io.FileUtil;
+import com.pd.pdaicodemother.ai.model.HtmlCodeResult;
+import com.pd.pdaicodemother.ai.model.MultiFileCodeResult;
+import com.pd.pdaicodemother.benchmark.BenchmarkData;
+import com.pd.pdaicodemother.core.parser.impl.HtmlCodeParser;
+import com.pd.pdaicodemother.core.parser.impl.MultiFileCodeParser;
+import com.pd.pdaicodemother.model.enums.CodeGenTypeEnum;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 代码保存基准：整段保存与边生成边写文件
+ * 写入 tmp/code_output 下固定的基准测试目录，结束后删除
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodeFileSaverBenchmark {
+
+    private static final long BENCHMARK_APP_ID = 990000000000000001L;
+
+    @Param({"10240", "262144", "2097152"})
+    private int size;
+
+    private HtmlCodeResult htmlCodeResult;
+
+    private MultiFileCodeResult multiFileCodeResult;
+
+    private List<String> chunks;
+
+    private final List<File> outputDirs = new ArrayList<>();
+
+    @Setup
+    public void setup() {
+        String content = BenchmarkData.codeReply(size);
+        htmlCodeResult = new HtmlCodeParser().parseCode(content);
+        multiFileCodeResult = new MultiFileCodeParser().parseCode(content);
+        chunks = BenchmarkData.chunks(content, 16);
+    }
+
+    @TearDown
+    public void cleanup() {
+        outputDirs.forEach(FileUtil::del);
+    }
+
+    @Benchmark
+    public File saveHtml() {
+        return remember(CodeFileSaverExecutor.saveCode(htmlCodeResult, CodeGenTypeEnum.HTML, BENCHMARK_APP_ID));
+    }
+
+    @Benchmark
+    public File saveMultiFile() {
+        return remember(CodeFileSaverExecutor.saveCode(multiFileCodeResult, CodeGenTypeEnum.MULTI_FILE, BENCHMARK_APP_ID));
+    }
+
+    @Benchmark
+    public File streamingSaveMultiFile() {
+        StreamingCodeFileSaver saver = CodeFileSaverExecutor.createStreamingSaver(CodeGenTypeEnum.MULTI_FILE, BENCHMARK_APP_ID);
+        for (String chunk : chunks) {
+            saver.feed(chunk);
+        }
+        return remember(saver.finish());
+    }
+
+    private File remember(File dir) {
+        if (!outputDirs.contains(dir)) {
+            outputDirs.add(dir);
+        }
+        return dir;
+    }
+}
@@ -0,0 +1,57 @@
+package com.pd.pdaicodemother.utils;
+
+import cn.hutool.json.JSONUtil;
+import com.pd.pdaicodemother.benchmark.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.codec.ServerSentEvent;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * SSE 信封编码基准，附带原先 Map + JSONUtil 的写法作为对照
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SseEventEncoderBenchmark {
+
+    /**
+     * 片段大小（字符）
+     */
+    @Param({"16", "64", "1024"})
+    private int chunkSize;
+
+    private String chunk;
+
+    @Setup
+    public void setup() {
+        // 取包含换行、引号和中文的片段
+        chunk = BenchmarkData.codeReply(chunkSize + 1024).substring(512, 512 + chunkSize);
+    }
+
+    @Benchmark
+    public ServerSentEvent<String> encoder() {
+        return SseEventEncoder.toEvent(chunk);
+    }
+
+    @Benchmark
+    public ServerSentEvent<String> mapAndJsonUtil() {
+        return ServerSentEvent.<String>builder()
+                .data(JSONUtil.toJsonStr(Map.of("d", chunk)))
+                .build();
+    }
+}
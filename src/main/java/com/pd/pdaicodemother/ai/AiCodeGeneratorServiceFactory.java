@@ -2,6 +2,8 @@ package com.pd.pdaicodemother.ai;
 
 import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.pd.pdaicodemother.ai.memory.LazyLoadingChatMemoryStore;
 import com.pd.pdaicodemother.ai.model.AiConstant;
 import com.pd.pdaicodemother.ai.tools.FileDeleteTool;
 import com.pd.pdaicodemother.ai.tools.FileDirReadTool;
@@ -9,21 +11,28 @@ import com.pd.pdaicodemother.ai.tools.FileModifyTool;
 import com.pd.pdaicodemother.ai.tools.FileReadTool;
 import com.pd.pdaicodemother.ai.tools.FileWriteTool;
 import com.pd.pdaicodemother.ai.tools.ToolManager;
+import com.pd.pdaicodemother.config.AiServiceCacheConfig;
 import com.pd.pdaicodemother.exception.BusinessException;
 import com.pd.pdaicodemother.exception.ErrorCode;
 import com.pd.pdaicodemother.model.enums.CodeGenTypeEnum;
-import com.pd.pdaicodemother.service.ChatHistoryService;
-import dev.langchain4j.community.store.memory.chat.redis.RedisChatMemoryStore;
 import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.memory.ChatMemory;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import dev.langchain4j.model.chat.ChatModel;
 import dev.langchain4j.model.chat.StreamingChatModel;
 import dev.langchain4j.service.AiServices;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.context.annotation.Configuration;
 
 import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 @Configuration
 @Slf4j
@@ -39,57 +48,103 @@ public class AiCodeGeneratorServiceFactory {
     private StreamingChatModel reasoningStreamingChatModel;
 
     @Resource
-    private RedisChatMemoryStore redisChatMemoryStore;
+    private LazyLoadingChatMemoryStore lazyLoadingChatMemoryStore;
 
     @Resource
-    private ChatHistoryService chatHistoryService;
+    private ToolManager toolManager;
 
     @Resource
-    private ToolManager toolManager;
+    private AiServiceCacheConfig aiServiceCacheConfig;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 每种生成类型共享一个 AI 服务代理，按 @MemoryId（appId）绑定对话记忆
+     */
+    private final Map<CodeGenTypeEnum, AiCodeGeneratorService> serviceByType = new EnumMap<>(CodeGenTypeEnum.class);
 
     /**
-     * AI 服务缓存实例
+     * 对话记忆缓存（只是 Redis 记忆的句柄，消息内容不在堆内）
+     * AI 服务代理内部按 memoryId 保存记忆，只在首次使用时调用 chatMemoryProvider，
+     * 因此每次生成前通过 {@link #getAiCodeGeneratorService(CodeGenTypeEnum, Long)} 访问一次，使按访问过期和容量淘汰反映真实的活跃度
      */
-    private final Cache<String, AiCodeGeneratorService> serviceCache = Caffeine.newBuilder()
-            .maximumSize(1000)
-            .expireAfterWrite(Duration.ofMinutes(30))
-            .expireAfterAccess(Duration.ofMinutes(10))
-            .removalListener((key, value, cause) -> log.info("缓存项被移除：{}, appId: {} ", key, cause))
-            .build();
+    private Cache<Object, ChatMemory> chatMemoryCache;
 
     /**
-     * 根据 appID 获取AI Service 实例
+     * 按移除原因统计的移除次数（容量淘汰与过期分开统计）
+     */
+    private final Map<RemovalCause, LongAdder> removalCounts = new EnumMap<>(RemovalCause.class);
+
+    @PostConstruct
+    public void init() {
+        for (RemovalCause cause : RemovalCause.values()) {
+            LongAdder removalCount = new LongAdder();
+            removalCounts.put(cause, removalCount);
+            FunctionCounter.builder("ai.chat.memory.removals", removalCount, LongAdder::sum)
+                    .description("对话记忆句柄移除次数")
+                    .tag("cause", cause.name().toLowerCase())
+                    .register(meterRegistry);
+        }
+        chatMemoryCache = Caffeine.newBuilder()
+                .maximumSize(aiServiceCacheConfig.getMaxChatMemories())
+                .expireAfterAccess(Duration.ofMinutes(aiServiceCacheConfig.getExpireAfterAccessMinutes()))
+                .recordStats()
+                .removalListener((Object memoryId, ChatMemory chatMemory, RemovalCause cause) -> {
+                    removalCounts.get(cause).increment();
+                    // 同步移除代理内部持有的记忆，保证整体有界（只移除句柄，不清空 Redis 中的记忆）
+                    serviceByType.values().forEach(service -> service.evictChatMemory(memoryId));
+                })
+                .build();
+        // 每次生成前的访问计入统计：hit 表示应用的记忆句柄仍在（近期活跃），miss 表示新建句柄；另上报淘汰次数
+        CaffeineCacheMetrics.monitor(meterRegistry, chatMemoryCache, "ai.chat.memory");
+        for (CodeGenTypeEnum codeGenTypeEnum : CodeGenTypeEnum.values()) {
+            serviceByType.put(codeGenTypeEnum, createAiCodeGeneratorService(codeGenTypeEnum));
+        }
+    }
+
+    /**
+     * 根据生成类型获取AI Service 实例
      *
-     * @param appId
+     * @param codeGenTypeEnum
      * @return
      */
-    public AiCodeGeneratorService getAiCodeGeneratorService(long appId, CodeGenTypeEnum codeGenTypeEnum) {
-        String cacheKey = buildCacheKey(appId, codeGenTypeEnum);
-        // 相当于getOrDefault
-        return serviceCache.get(cacheKey, key -> createAiCodeGeneratorService(appId, codeGenTypeEnum));
+    public AiCodeGeneratorService getAiCodeGeneratorService(CodeGenTypeEnum codeGenTypeEnum) {
+        AiCodeGeneratorService aiCodeGeneratorService = serviceByType.get(codeGenTypeEnum);
+        if (aiCodeGeneratorService == null) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "不支持的代码生成类型");
+        }
+        return aiCodeGeneratorService;
+    }
+
+    /**
+     * 根据生成类型获取 AI Service 实例，并记录一次对该应用对话记忆的访问（刷新过期时间和淘汰顺序）
+     *
+     * @param codeGenTypeEnum 生成类型
+     * @param appId           应用 ID（即 @MemoryId）
+     * @return AI Service 实例
+     */
+    public AiCodeGeneratorService getAiCodeGeneratorService(CodeGenTypeEnum codeGenTypeEnum, Long appId) {
+        AiCodeGeneratorService aiCodeGeneratorService = getAiCodeGeneratorService(codeGenTypeEnum);
+        if (appId != null) {
+            chatMemoryCache.get(appId, this::createChatMemory);
+        }
+        return aiCodeGeneratorService;
     }
 
     /**
      * 创建 AI 服务实例
      *
-     * @param appId
+     * @param codeGenTypeEnum
      * @return
      */
-    public AiCodeGeneratorService createAiCodeGeneratorService(long appId, CodeGenTypeEnum codeGenTypeEnum) {
-        log.info("为 appID ： {} 创建新的 AI 服务实例", appId);
-        MessageWindowChatMemory chatMemory = MessageWindowChatMemory.builder()
-                .id(appId)
-                .chatMemoryStore(redisChatMemoryStore)
-                .maxMessages(20)
-                .build();
-        // 创建时加入20条消息
-        chatHistoryService.loadChatHistoryToMemory(appId, chatMemory, AiConstant.MAX_MESSAGE_COUNT);
-
+    private AiCodeGeneratorService createAiCodeGeneratorService(CodeGenTypeEnum codeGenTypeEnum) {
+        log.info("创建 {} 类型的 AI 服务实例", codeGenTypeEnum.getValue());
         return switch (codeGenTypeEnum) {
             case VUE_PROJECT -> AiServices.builder(AiCodeGeneratorService.class)
                     .streamingChatModel(reasoningStreamingChatModel)
-                    .chatMemoryProvider(memoryId -> chatMemory)
-                    .tools(toolManager.getAllTools())
+                    .chatMemoryProvider(this::getChatMemory)
+                    .tools(toolManager.getToolExecutors())
                     .hallucinatedToolNameStrategy(toolExecutionRequest -> ToolExecutionResultMessage.from(
                             toolExecutionRequest, "Error : there is no tool called" + toolExecutionRequest.name()
                     ))
@@ -97,14 +152,29 @@ public class AiCodeGeneratorServiceFactory {
             case HTML, MULTI_FILE -> AiServices.builder(AiCodeGeneratorService.class)
                     .chatModel(chatModel)
                     .streamingChatModel(openAiStreamingChatModel)
-                    .chatMemory(chatMemory)
+                    .chatMemoryProvider(this::getChatMemory)
                     .build();
-            default -> throw new BusinessException(ErrorCode.SYSTEM_ERROR, "不支持的代码生成类型");
         };
     }
 
-    public String buildCacheKey(Long appId, CodeGenTypeEnum codeGenTypeEnum) {
-        return appId + "_" + codeGenTypeEnum.getValue();
+    /**
+     * 获取 appId 对应的对话记忆
+     *
+     * @param memoryId appId
+     * @return
+     */
+    private ChatMemory getChatMemory(Object memoryId) {
+        // 通过 asMap 读取不计入统计，统计只反映每次生成前的访问
+        return chatMemoryCache.asMap().computeIfAbsent(memoryId, this::createChatMemory);
+    }
+
+    private ChatMemory createChatMemory(Object memoryId) {
+        return MessageWindowChatMemory.builder()
+                .id(memoryId)
+                // 首次读取时才从 Redis / 对话历史恢复，创建时不再重写记忆
+                .chatMemoryStore(lazyLoadingChatMemoryStore)
+                .maxMessages(AiConstant.MAX_MESSAGE_COUNT)
+                .build();
     }
 
 }
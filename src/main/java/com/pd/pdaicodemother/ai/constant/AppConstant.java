@@ -22,6 +22,11 @@ public interface AppConstant {
      */
     String CODE_DEPLOY_ROOT_DIR = System.getProperty("user.dir") + "/tmp/code_deploy";
 
+    /**
+     * 应用部署版本目录（不在部署目录下，不会被公开访问；与部署目录同在 tmp 下以便硬链接）
+     */
+    String CODE_DEPLOY_VERSIONS_DIR = System.getProperty("user.dir") + "/tmp/code_deploy_versions";
+
     /**
      * 应用部署域名
      */
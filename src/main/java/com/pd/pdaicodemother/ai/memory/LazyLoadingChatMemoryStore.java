@@ -0,0 +1,137 @@
+package com.pd.pdaicodemother.ai.memory;
+
+import com.pd.pdaicodemother.ai.model.AiConstant;
+import com.pd.pdaicodemother.service.ChatHistoryService;
+import dev.langchain4j.community.store.memory.chat.redis.RedisChatMemoryStore;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.store.memory.chat.ChatMemoryStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 懒加载的对话记忆存储
+ * 首次读取某个 memoryId 时先查 Redis，Redis 中没有再从对话历史恢复并写回 Redis；
+ * 不再在创建 AI 服务时清空并重写记忆，缓存淘汰后重新创建服务只需一次 Redis 读取；
+ * 同一应用并发的恢复只执行一次
+ */
+@Slf4j
+@Component
+public class LazyLoadingChatMemoryStore implements ChatMemoryStore {
+
+    @Resource
+    private RedisChatMemoryStore redisChatMemoryStore;
+
+    @Resource
+    private ChatHistoryService chatHistoryService;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 正在从对话历史恢复的记忆
+     */
+    private final Map<Object, CompletableFuture<List<ChatMessage>>> inFlight = new ConcurrentHashMap<>();
+
+    private final AtomicLong redisHitCount = new AtomicLong();
+
+    private final AtomicLong historyLoadCount = new AtomicLong();
+
+    @PostConstruct
+    public void bindMetrics() {
+        FunctionCounter.builder("ai.chat.memory.load", redisHitCount, AtomicLong::get)
+                .description("对话记忆读取次数")
+                .tag("source", "redis")
+                .register(meterRegistry);
+        FunctionCounter.builder("ai.chat.memory.load", historyLoadCount, AtomicLong::get)
+                .description("对话记忆读取次数")
+                .tag("source", "history")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public List<ChatMessage> getMessages(Object memoryId) {
+        List<ChatMessage> messages = redisChatMemoryStore.getMessages(memoryId);
+        if (!messages.isEmpty()) {
+            redisHitCount.incrementAndGet();
+            return messages;
+        }
+        // Redis 中没有（首次对话或已过期），从对话历史恢复
+        Long appId = toAppId(memoryId);
+        if (appId == null) {
+            return messages;
+        }
+        // 同一应用并发的首次读取只恢复一次，其余请求等待结果
+        CompletableFuture<List<ChatMessage>> restoring = new CompletableFuture<>();
+        CompletableFuture<List<ChatMessage>> existing = inFlight.putIfAbsent(memoryId, restoring);
+        if (existing != null) {
+            return new ArrayList<>(existing.join());
+        }
+        try {
+            List<ChatMessage> history = restoreFromHistory(memoryId, appId);
+            restoring.complete(history);
+            return new ArrayList<>(history);
+        } catch (RuntimeException e) {
+            restoring.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(memoryId, restoring);
+        }
+    }
+
+    @Override
+    public void updateMessages(Object memoryId, List<ChatMessage> messages) {
+        redisChatMemoryStore.updateMessages(memoryId, messages);
+    }
+
+    @Override
+    public void deleteMessages(Object memoryId) {
+        redisChatMemoryStore.deleteMessages(memoryId);
+    }
+
+    /**
+     * Redis 命中次数
+     */
+    public long getRedisHitCount() {
+        return redisHitCount.get();
+    }
+
+    /**
+     * 从对话历史恢复的次数
+     */
+    public long getHistoryLoadCount() {
+        return historyLoadCount.get();
+    }
+
+    private List<ChatMessage> restoreFromHistory(Object memoryId, Long appId) {
+        List<ChatMessage> history = chatHistoryService.listChatMessagesForMemory(appId, AiConstant.MAX_MESSAGE_COUNT);
+        historyLoadCount.incrementAndGet();
+        if (!history.isEmpty()) {
+            redisChatMemoryStore.updateMessages(memoryId, history);
+            log.info("Redis 中无 appId: {} 的记忆，已从对话历史恢复 {} 条", appId, history.size());
+        }
+        return history;
+    }
+
+    private Long toAppId(Object memoryId) {
+        if (memoryId instanceof Number number) {
+            return number.longValue();
+        }
+        try {
+            return Long.valueOf(String.valueOf(memoryId));
+        } catch (NumberFormatException e) {
+            log.warn("无法识别的记忆 id: {}", memoryId);
+            return null;
+        }
+    }
+}
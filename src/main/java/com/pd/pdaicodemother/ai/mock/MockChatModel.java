@@ -0,0 +1,30 @@
+package com.pd.pdaicodemother.ai.mock;
+
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+
+/**
+ * 模拟对话模型，始终返回固定回复（用于生成类型路由等非流式调用）
+ */
+public class MockChatModel implements ChatModel {
+
+    private final String reply;
+
+    public MockChatModel(String reply) {
+        this.reply = reply;
+    }
+
+    @Override
+    public ChatResponse doChat(ChatRequest chatRequest) {
+        return ChatResponse.builder()
+                .aiMessage(AiMessage.from(reply))
+                .tokenUsage(new TokenUsage(MockStreamingChatModel.estimateInputTokens(chatRequest),
+                        MockStreamingChatModel.estimateTokens(reply)))
+                .finishReason(FinishReason.STOP)
+                .build();
+    }
+}
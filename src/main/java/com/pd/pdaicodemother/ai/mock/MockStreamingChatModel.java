@@ -0,0 +1,277 @@
+package com.pd.pdaicodemother.ai.mock;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.core.util.StrUtil;
+import cn.hutool.json.JSONUtil;
+import com.pd.pdaicodemother.config.MockLlmConfig;
+import dev.langchain4j.agent.tool.ToolExecutionRequest;
+import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
+import dev.langchain4j.data.message.SystemMessage;
+import dev.langchain4j.data.message.ToolExecutionResultMessage;
+import dev.langchain4j.data.message.UserMessage;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import dev.langchain4j.model.chat.request.ChatRequest;
+import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.chat.response.StreamingChatResponseHandler;
+import dev.langchain4j.model.output.FinishReason;
+import dev.langchain4j.model.output.TokenUsage;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 模拟流式模型
+ * 按配置的首 token 延迟和 token 间隔回放录制或合成的回复；
+ * 请求带工具时按脚本依次发起 writeFile / modifyFile 调用，脚本执行完后输出最终回复
+ */
+@Slf4j
+public class MockStreamingChatModel implements StreamingChatModel {
+
+    private static final String MOCK_MARKER = "模拟内容";
+
+    private final MockLlmConfig config;
+
+    /**
+     * 不带工具时的回复（录制或合成，首次使用时生成）
+     */
+    private volatile String reply;
+
+    public MockStreamingChatModel(MockLlmConfig config) {
+        this.config = config;
+    }
+
+    @Override
+    public void doChat(ChatRequest chatRequest, StreamingChatResponseHandler handler) {
+        // 与真实模型一样在其他线程回调，不阻塞调用方
+        Thread.ofVirtual().name("mock-llm").start(() -> {
+            // 相当于真实模型的响应流：取消时中断输出线程，立即结束等待
+            Thread responder = Thread.currentThread();
+            handler.onStreamOpened(responder::interrupt);
+            try {
+                respond(chatRequest, handler);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                handler.onError(e);
+            } catch (Exception e) {
+                log.error("模拟模型响应失败", e);
+                handler.onError(e);
+            }
+        });
+    }
+
+    private void respond(ChatRequest chatRequest, StreamingChatResponseHandler handler) throws InterruptedException {
+        sleep(config.getFirstTokenDelayMs());
+        boolean hasTools = chatRequest.toolSpecifications() != null && !chatRequest.toolSpecifications().isEmpty();
+        List<MockLlmConfig.ToolCall> toolCalls = config.getToolCalls();
+        int round = countToolRounds(chatRequest.messages());
+        if (hasTools && toolCalls != null && round < toolCalls.size()) {
+            streamToolCall(chatRequest, round, toolCalls.get(round), handler);
+            return;
+        }
+        String text = hasTools ? "项目文件已生成完毕，共执行 " + round + " 次工具调用。" : getReply();
+        if (!streamText(text, handler)) {
+            return;
+        }
+        handler.onCompleteResponse(ChatResponse.builder()
+                .aiMessage(AiMessage.from(text))
+                .tokenUsage(new TokenUsage(estimateInputTokens(chatRequest), estimateTokens(text)))
+                .finishReason(FinishReason.STOP)
+                .build());
+    }
+
+    private void streamToolCall(ChatRequest chatRequest, int round, MockLlmConfig.ToolCall toolCall,
+                                StreamingChatResponseHandler handler) throws InterruptedException {
+        String text = "正在执行第 " + (round + 1) + " 个工具调用：" + toolCall.getName() + "\n";
+        if (!streamText(text, handler)) {
+            return;
+        }
+        String id = "mock_call_" + IdUtil.fastSimpleUUID();
+        String arguments = JSONUtil.toJsonStr(buildArguments(toolCall));
+        // 参数分片下发，模拟真实模型的工具调用流
+        for (String chunk : split(arguments, config.getTokenSize() * 4)) {
+            sleep(config.getTokenDelayMs());
+            if (isCancelled(handler)) {
+                return;
+            }
+            handler.onPartialToolExecutionRequest(0, ToolExecutionRequest.builder()
+                    .id(id)
+                    .name(toolCall.getName())
+                    .arguments(chunk)
+                    .build());
+        }
+        ToolExecutionRequest request = ToolExecutionRequest.builder()
+                .id(id)
+                .name(toolCall.getName())
+                .arguments(arguments)
+                .build();
+        handler.onCompleteToolExecutionRequest(0, request);
+        handler.onCompleteResponse(ChatResponse.builder()
+                .aiMessage(AiMessage.from(text, List.of(request)))
+                .tokenUsage(new TokenUsage(estimateInputTokens(chatRequest), estimateTokens(text) + estimateTokens(arguments)))
+                .finishReason(FinishReason.TOOL_EXECUTION)
+                .build());
+    }
+
+    private Map<String, Object> buildArguments(MockLlmConfig.ToolCall toolCall) {
+        Map<String, Object> arguments = new LinkedHashMap<>();
+        arguments.put("relativeFilePath", toolCall.getRelativeFilePath());
+        if ("modifyFile".equals(toolCall.getName())) {
+            arguments.put("oldContent", StrUtil.blankToDefault(toolCall.getOldContent(), MOCK_MARKER));
+            arguments.put("newContent", StrUtil.nullToEmpty(toolCall.getNewContent()));
+        } else {
+            arguments.put("content", toolCall.getContent() != null
+                    ? toolCall.getContent()
+                    : syntheticVueFile(config.getToolContentSize()));
+        }
+        return arguments;
+    }
+
+    /**
+     * 逐个 token 输出文本
+     *
+     * @return 是否完整输出（调用方已取消时提前停止并返回 false）
+     */
+    private boolean streamText(String text, StreamingChatResponseHandler handler) throws InterruptedException {
+        boolean first = true;
+        for (String token : split(text, config.getTokenSize())) {
+            if (!first) {
+                sleep(config.getTokenDelayMs());
+            }
+            first = false;
+            if (isCancelled(handler)) {
+                return false;
+            }
+            handler.onPartialResponse(token);
+        }
+        return true;
+    }
+
+    /**
+     * 与真实模型一样，调用方取消后停止输出，不再回调完成
+     */
+    private static boolean isCancelled(StreamingChatResponseHandler handler) {
+        if (handler.isCancelled()) {
+            log.debug("模拟模型响应已取消");
+            return true;
+        }
+        return false;
+    }
+
+    private String getReply() {
+        String current = reply;
+        if (current == null) {
+            current = StrUtil.isNotBlank(config.getReplyFile())
+                    ? FileUtil.readUtf8String(config.getReplyFile())
+                    : syntheticCodeReply(config.getReplySize());
+            reply = current;
+        }
+        return current;
+    }
+
+    /**
+     * 当前用户消息之后已经执行的工具调用轮数
+     */
+    private static int countToolRounds(List<ChatMessage> messages) {
+        int rounds = 0;
+        for (int i = messages.size() - 1; i >= 0; i--) {
+            ChatMessage message = messages.get(i);
+            if (message instanceof UserMessage) {
+                break;
+            }
+            if (message instanceof ToolExecutionResultMessage) {
+                rounds++;
+            }
+        }
+        return rounds;
+    }
+
+    /**
+     * 按字符数切分，不拆开代理对
+     */
+    private static List<String> split(String text, int size) {
+        int chunkSize = Math.max(1, size);
+        List<String> chunks = new ArrayList<>(text.length() / chunkSize + 1);
+        int start = 0;
+        while (start < text.length()) {
+            int end = Math.min(text.length(), start + chunkSize);
+            if (end < text.length() && Character.isHighSurrogate(text.charAt(end - 1))) {
+                end++;
+            }
+            chunks.add(text.substring(start, end));
+            start = end;
+        }
+        return chunks;
+    }
+
+    /**
+     * 合成包含 HTML、CSS、JS 三个代码块的回复，HTML 与多文件模式都能解析
+     */
+    static String syntheticCodeReply(int size) {
+        StringBuilder html = new StringBuilder("<!DOCTYPE html>\n<html lang=\"zh-CN\">\n<head>\n"
+                + "  <meta charset=\"UTF-8\">\n  <title>模拟页面</title>\n"
+                + "  <link rel=\"stylesheet\" href=\"style.css\">\n</head>\n<body>\n");
+        StringBuilder css = new StringBuilder("body {\n  margin: 0;\n  font-family: sans-serif;\n}\n");
+        StringBuilder js = new StringBuilder("document.addEventListener('DOMContentLoaded', () => {\n");
+        int line = 0;
+        while (html.length() + css.length() + js.length() < size) {
+            html.append("  <section class=\"item-").append(line).append("\"><p>").append(MOCK_MARKER)
+                    .append(' ').append(line).append("</p></section>\n");
+            if (line % 3 == 0) {
+                css.append(".item-").append(line).append(" {\n  padding: ").append(line % 16).append("px;\n}\n");
+                js.append("  console.log('item-").append(line).append("');\n");
+            }
+            line++;
+        }
+        html.append("  <script src=\"script.js\"></script>\n</body>\n</html>");
+        js.append("});");
+        return "下面是生成的代码：\n\n```html\n" + html + "\n```\n\n```css\n" + css + "```\n\n```javascript\n" + js
+                + "\n```\n\n以上代码实现了模拟页面。";
+    }
+
+    /**
+     * 合成 Vue 单文件组件，包含 modifyFile 默认替换的标记文本
+     */
+    static String syntheticVueFile(int size) {
+        StringBuilder template = new StringBuilder("<template>\n  <div class=\"app\">\n    <h1>")
+                .append(MOCK_MARKER).append("</h1>\n");
+        int line = 0;
+        while (template.length() < size) {
+            template.append("    <p>第 ").append(line++).append(" 行</p>\n");
+        }
+        return template.append("  </div>\n</template>\n\n<script setup>\n</script>\n\n<style scoped>\n.app {\n  padding: 16px;\n}\n</style>\n")
+                .toString();
+    }
+
+    /**
+     * 粗略估算 token 数（约 4 个字符一个 token）
+     */
+    static int estimateTokens(String text) {
+        return text == null ? 0 : (text.length() + 3) / 4;
+    }
+
+    static int estimateInputTokens(ChatRequest chatRequest) {
+        int tokens = 0;
+        for (ChatMessage message : chatRequest.messages()) {
+            String text = switch (message) {
+                case SystemMessage systemMessage -> systemMessage.text();
+                case UserMessage userMessage -> userMessage.hasSingleText() ? userMessage.singleText() : null;
+                case AiMessage aiMessage -> aiMessage.text();
+                case ToolExecutionResultMessage resultMessage -> resultMessage.text();
+                default -> null;
+            };
+            tokens += estimateTokens(text);
+        }
+        return tokens;
+    }
+
+    private static void sleep(long millis) throws InterruptedException {
+        if (millis > 0) {
+            Thread.sleep(millis);
+        }
+    }
+}
@@ -3,4 +3,9 @@ package com.pd.pdaicodemother.ai.model;
 public interface AiConstant {
 
     public Integer MAX_MESSAGE_COUNT = 20;
+
+    /**
+     * 客户端断开导致生成中断时，追加在已生成内容后的标记
+     */
+    public String GENERATION_INTERRUPTED_MARK = "\n\n[客户端已断开，生成已中断]";
 }
@@ -0,0 +1,26 @@
+package com.pd.pdaicodemother.ai.model.message;
+
+import dev.langchain4j.model.output.TokenUsage;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+/**
+ * Token 用量消息
+ * 工具调用的每轮请求完成和整个响应完成时发出，值为截至当时的累计用量（后发出的覆盖先发出的），只用于记录和统计，不返回给前端
+ */
+@Data
+@EqualsAndHashCode(callSuper = true)
+@NoArgsConstructor
+public class TokenUsageMessage extends StreamMessage {
+
+    private int inputTokens;
+
+    private int outputTokens;
+
+    public TokenUsageMessage(TokenUsage tokenUsage) {
+        super(StreamMessageTypeEnum.TOKEN_USAGE.getValue());
+        this.inputTokens = tokenUsage.inputTokenCount() == null ? 0 : tokenUsage.inputTokenCount();
+        this.outputTokens = tokenUsage.outputTokenCount() == null ? 0 : tokenUsage.outputTokenCount();
+    }
+}
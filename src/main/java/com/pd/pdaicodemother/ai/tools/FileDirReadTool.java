@@ -29,7 +29,7 @@ public class FileDirReadTool extends BaseTool {
      */
     private static final Set<String> IGNORED_NAMES = Set.of(
             "node_modules", ".git", "dist", "build", ".DS_Store",
-            ".env", "target", ".mvn", ".idea", ".vscode", "coverage"
+            ".env", "target", ".mvn", ".idea", ".vscode", "coverage", ".build-fingerprint"
     );
 
     /**
@@ -1,11 +1,19 @@
 package com.pd.pdaicodemother.ai.tools;
 
+import com.pd.pdaicodemother.monitor.GenerationMetrics;
+import dev.langchain4j.agent.tool.Tool;
+import dev.langchain4j.agent.tool.ToolSpecification;
+import dev.langchain4j.agent.tool.ToolSpecifications;
+import dev.langchain4j.service.tool.DefaultToolExecutor;
+import dev.langchain4j.service.tool.ToolExecutor;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.lang.reflect.Method;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
@@ -21,6 +29,11 @@ public class ToolManager {
      */
     private final Map<String, BaseTool> toolMap = new HashMap<>();
 
+    /**
+     * 工具规格到执行器的映射，执行器会统计工具执行耗时
+     */
+    private final Map<ToolSpecification, ToolExecutor> toolExecutors = new LinkedHashMap<>();
+
     /**
      * 自动收集所有BaseTool的实现类bean
      */
@@ -34,6 +47,13 @@ public class ToolManager {
     public void initTools() {
         for (BaseTool tool : tools) {
             toolMap.put(tool.getToolName(), tool);
+            for (Method method : tool.getClass().getDeclaredMethods()) {
+                if (method.isAnnotationPresent(Tool.class)) {
+                    ToolSpecification toolSpecification = ToolSpecifications.toolSpecificationFrom(method);
+                    toolExecutors.put(toolSpecification,
+                            timed(toolSpecification.name(), new DefaultToolExecutor(tool, method)));
+                }
+            }
             log.info("注册工具: {} -> {}", tool.getToolName(), tool.getDisplayName());
         }
         log.info("工具管理器初始化完成，共注册 {} 个工具", toolMap.size());
@@ -57,4 +77,30 @@ public class ToolManager {
     public BaseTool[] getAllTools() {
         return tools;
     }
+
+    /**
+     * 获取所有工具的规格和执行器，注册到 AI 服务后统计每次工具执行的耗时
+     *
+     * @return 工具规格到执行器的映射
+     */
+    public Map<ToolSpecification, ToolExecutor> getToolExecutors() {
+        return toolExecutors;
+    }
+
+    /**
+     * 包装执行器，记录执行耗时和是否抛出异常
+     */
+    private static ToolExecutor timed(String toolName, ToolExecutor delegate) {
+        return (toolExecutionRequest, memoryId) -> {
+            long startNanos = System.nanoTime();
+            boolean success = false;
+            try {
+                String result = delegate.execute(toolExecutionRequest, memoryId);
+                success = true;
+                return result;
+            } finally {
+                GenerationMetrics.recordToolExecution(toolName, System.nanoTime() - startNanos, success);
+            }
+        };
+    }
 }
@@ -0,0 +1,25 @@
+package com.pd.pdaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * AI 服务对话记忆缓存配置
+ * 每种生成类型共享一个 AI 服务代理，缓存的只是按 appId 绑定的记忆句柄
+ */
+@ConfigurationProperties(prefix = "ai-service.cache")
+@Configuration
+@Data
+public class AiServiceCacheConfig {
+
+    /**
+     * 缓存的对话记忆数量上限
+     */
+    private long maxChatMemories = 10000;
+
+    /**
+     * 应用最后一次生成后多久过期（分钟），每次生成前都会访问一次
+     */
+    private long expireAfterAccessMinutes = 30;
+}
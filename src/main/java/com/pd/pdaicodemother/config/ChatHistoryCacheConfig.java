@@ -0,0 +1,34 @@
+package com.pd.pdaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 对话历史热点缓存配置
+ */
+@ConfigurationProperties(prefix = "chat-history.cache")
+@Configuration
+@Data
+public class ChatHistoryCacheConfig {
+
+    /**
+     * 是否启用缓存
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每个应用缓存的最近消息条数（需大于记忆窗口 + 1）
+     */
+    private int ringSize = 50;
+
+    /**
+     * 缓存总大小上限（字节，按消息内容估算）
+     */
+    private long maxWeightBytes = 64L * 1024 * 1024;
+
+    /**
+     * 访问后过期时间（分钟）
+     */
+    private long expireAfterAccessMinutes = 30;
+}
@@ -0,0 +1,44 @@
+package com.pd.pdaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 对话历史异步批量写入配置
+ */
+@ConfigurationProperties(prefix = "chat-history.writer")
+@Configuration
+@Data
+public class ChatHistoryWriterConfig {
+
+    /**
+     * 是否异步批量写入，关闭则每条消息同步插入
+     */
+    private boolean enabled = true;
+
+    /**
+     * 队列容量
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * 单批最大条数
+     */
+    private int batchSize = 200;
+
+    /**
+     * 队列满时最多等待的毫秒数，超时后改为同步写入
+     */
+    private long offerTimeoutMs = 100;
+
+    /**
+     * 读取前等待该应用待写入消息落库的最长毫秒数
+     */
+    private long flushTimeoutMs = 2000;
+
+    /**
+     * 关闭时等待队列写完的最长毫秒数
+     */
+    private long shutdownTimeoutMs = 10000;
+}
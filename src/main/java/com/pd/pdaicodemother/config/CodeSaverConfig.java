@@ -0,0 +1,19 @@
+package com.pd.pdaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 代码保存配置
+ */
+@ConfigurationProperties(prefix = "code-saver")
+@Configuration
+@Data
+public class CodeSaverConfig {
+
+    /**
+     * 是否边生成边写文件（HTML / MULTI_FILE），关闭则在流结束后统一解析保存
+     */
+    private boolean streaming = true;
+}
@@ -0,0 +1,24 @@
+package com.pd.pdaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 异步部署任务配置
+ */
+@ConfigurationProperties(prefix = "deploy.job")
+@Configuration
+@Data
+public class DeployJobConfig {
+
+    /**
+     * 任务提交后保留多久（分钟），过期后无法再查询状态
+     */
+    private long retainMinutes = 60;
+
+    /**
+     * 最多保留的任务数
+     */
+    private long maxJobs = 10000;
+}
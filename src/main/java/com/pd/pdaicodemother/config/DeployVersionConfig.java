@@ -0,0 +1,19 @@
+package com.pd.pdaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 部署版本配置
+ */
+@ConfigurationProperties(prefix = "deploy.version")
+@Configuration
+@Data
+public class DeployVersionConfig {
+
+    /**
+     * 每个部署保留的版本数（包括当前版本），更早的版本会被删除
+     */
+    private int keepVersions = 3;
+}
@@ -0,0 +1,24 @@
+package com.pd.pdaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 同一应用并发生成控制配置
+ */
+@ConfigurationProperties(prefix = "generation.lease")
+@Configuration
+@Data
+public class GenerationLeaseConfig {
+
+    /**
+     * 是否启用
+     */
+    private boolean enabled = true;
+
+    /**
+     * 应用正在生成时的最长排队等待时间（毫秒），为 0 时直接拒绝
+     */
+    private long waitTimeoutMs = 0;
+}
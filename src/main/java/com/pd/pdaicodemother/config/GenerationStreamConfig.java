@@ -0,0 +1,34 @@
+package com.pd.pdaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 可续传的生成流配置
+ */
+@ConfigurationProperties(prefix = "generation.stream")
+@Configuration
+@Data
+public class GenerationStreamConfig {
+
+    /**
+     * 是否启用（关闭后客户端断开即取消生成，不支持续传）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 每次生成保留的最近事件数，超出后最早的事件无法再续传
+     */
+    private int maxEvents = 10000;
+
+    /**
+     * 所有客户端断开后继续生成、等待重连的时间（毫秒），超时后取消生成
+     */
+    private long detachGraceMs = 30000;
+
+    /**
+     * 生成结束后保留事件的时间（毫秒），供断线的客户端补齐末尾
+     */
+    private long retainAfterCompleteMs = 60000;
+}
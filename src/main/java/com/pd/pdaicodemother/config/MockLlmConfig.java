@@ -0,0 +1,123 @@
+package com.pd.pdaicodemother.config;
+
+import com.pd.pdaicodemother.ai.mock.MockChatModel;
+import com.pd.pdaicodemother.ai.mock.MockStreamingChatModel;
+import dev.langchain4j.model.chat.ChatModel;
+import dev.langchain4j.model.chat.StreamingChatModel;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 本地模拟大模型配置（mock-llm 环境）
+ * 替换 DeepSeek 的对话模型和流式模型，按配置的延迟回放录制或合成的回复，用于离线压测生成链路
+ */
+@Profile("mock-llm")
+@Configuration
+@ConfigurationProperties(prefix = "mock-llm")
+@Data
+public class MockLlmConfig {
+
+    /**
+     * 首个 token 的延迟（毫秒）
+     */
+    private long firstTokenDelayMs = 300;
+
+    /**
+     * 相邻 token 的间隔（毫秒）
+     */
+    private long tokenDelayMs = 20;
+
+    /**
+     * 每个 token 的字符数
+     */
+    private int tokenSize = 4;
+
+    /**
+     * 合成回复的字符数（未配置录制回复时使用）
+     */
+    private int replySize = 6000;
+
+    /**
+     * 录制的回复文件路径，为空时使用合成回复
+     */
+    private String replyFile;
+
+    /**
+     * 非流式对话的固定回复（用于生成类型路由等）
+     */
+    private String chatReply = "HTML";
+
+    /**
+     * 工具调用中合成文件内容的字符数
+     */
+    private int toolContentSize = 2000;
+
+    /**
+     * 带工具的请求按顺序执行的工具调用，全部执行完后输出最终回复
+     */
+    private List<ToolCall> toolCalls = new ArrayList<>(List.of(
+            new ToolCall("writeFile", "src/App.vue", null, null, null),
+            new ToolCall("modifyFile", "src/App.vue", null, "模拟内容", "模拟修改后的内容")
+    ));
+
+    @Bean
+    public ChatModel chatModel() {
+        return new MockChatModel(chatReply);
+    }
+
+    @Bean
+    public StreamingChatModel openAiStreamingChatModel() {
+        return new MockStreamingChatModel(this);
+    }
+
+    @Bean
+    public StreamingChatModel reasoningStreamingChatModel() {
+        return new MockStreamingChatModel(this);
+    }
+
+    /**
+     * 脚本化的工具调用
+     */
+    @Data
+    public static class ToolCall {
+
+        /**
+         * 工具名称（writeFile / modifyFile）
+         */
+        private String name;
+
+        private String relativeFilePath;
+
+        /**
+         * writeFile 写入的内容，为空时合成
+         */
+        private String content;
+
+        /**
+         * modifyFile 替换的旧内容
+         */
+        private String oldContent;
+
+        /**
+         * modifyFile 替换后的新内容
+         */
+        private String newContent;
+
+        public ToolCall() {
+        }
+
+        public ToolCall(String name, String relativeFilePath, String content, String oldContent, String newContent) {
+            this.name = name;
+            this.relativeFilePath = relativeFilePath;
+            this.content = content;
+            this.oldContent = oldContent;
+            this.newContent = newContent;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.pd.pdaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Vue 项目依赖缓存配置
+ */
+@ConfigurationProperties(prefix = "vue-build.node-modules-cache")
+@Configuration
+@Data
+public class NodeModulesCacheConfig {
+
+    /**
+     * 是否启用（关闭后每个项目各自执行 npm install）
+     */
+    private boolean enabled = true;
+
+    /**
+     * 缓存目录，每组依赖（按 package.json 和锁文件的哈希区分）安装一份
+     */
+    private String cacheDir = System.getProperty("user.dir") + "/tmp/node_modules_cache";
+
+    /**
+     * 最多保留的依赖组数，超出后删除最久未使用的
+     */
+    private int maxEntries = 20;
+}
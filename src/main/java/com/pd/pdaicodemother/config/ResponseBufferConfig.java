@@ -0,0 +1,32 @@
+package com.pd.pdaicodemother.config;
+
+import com.pd.pdaicodemother.core.buffer.ResponseBuffer;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * AI 响应缓冲区配置
+ */
+@ConfigurationProperties(prefix = "response-buffer")
+@Configuration
+@Data
+public class ResponseBufferConfig {
+
+    /**
+     * 堆内最多保留的字符数，超过后溢出到临时文件
+     */
+    private int memoryThreshold = 256 * 1024;
+
+    /**
+     * 溢出文件目录
+     */
+    private String spillDir = System.getProperty("user.dir") + "/tmp/response_buffer";
+
+    /**
+     * 为一次生成创建响应缓冲区
+     */
+    public ResponseBuffer createBuffer() {
+        return new ResponseBuffer(memoryThreshold, spillDir);
+    }
+}
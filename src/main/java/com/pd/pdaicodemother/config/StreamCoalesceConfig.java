@@ -0,0 +1,29 @@
+package com.pd.pdaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 流式响应合并配置
+ */
+@ConfigurationProperties(prefix = "stream-coalesce")
+@Configuration
+@Data
+public class StreamCoalesceConfig {
+
+    /**
+     * 是否合并相邻的 AI 响应片段
+     */
+    private boolean enabled = true;
+
+    /**
+     * 累积达到该字节数（UTF-8）立即输出
+     */
+    private int maxBytes = 64;
+
+    /**
+     * 第一个片段到达后最多等待的毫秒数
+     */
+    private long maxDelayMs = 20;
+}
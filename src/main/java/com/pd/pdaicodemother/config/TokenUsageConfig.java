@@ -0,0 +1,19 @@
+package com.pd.pdaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Token 用量统计配置
+ */
+@ConfigurationProperties(prefix = "token-usage")
+@Configuration
+@Data
+public class TokenUsageConfig {
+
+    /**
+     * 每个用户每天的 Token 上限（输入 + 输出），为 0 时不限制
+     */
+    private long dailyUserLimit = 0;
+}
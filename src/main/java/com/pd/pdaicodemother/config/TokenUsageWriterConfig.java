@@ -0,0 +1,39 @@
+package com.pd.pdaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Token 用量汇总异步写入配置
+ */
+@ConfigurationProperties(prefix = "token-usage.writer")
+@Configuration
+@Data
+public class TokenUsageWriterConfig {
+
+    /**
+     * 是否异步批量写入，关闭则每次生成同步累加
+     */
+    private boolean enabled = true;
+
+    /**
+     * 队列容量
+     */
+    private int queueCapacity = 10000;
+
+    /**
+     * 单批最大条数
+     */
+    private int batchSize = 200;
+
+    /**
+     * 队列满时最多等待的毫秒数，超时后改为同步写入
+     */
+    private long offerTimeoutMs = 100;
+
+    /**
+     * 关闭时等待队列写完的最长毫秒数
+     */
+    private long shutdownTimeoutMs = 10000;
+}
@@ -0,0 +1,29 @@
+package com.pd.pdaicodemother.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Vue 项目构建调度配置
+ */
+@ConfigurationProperties(prefix = "vue-build.scheduler")
+@Configuration
+@Data
+public class VueBuildSchedulerConfig {
+
+    /**
+     * 同时执行的构建数
+     */
+    private int concurrency = 2;
+
+    /**
+     * 排队的后台构建（生成完成后触发）上限，超出后丢弃新的后台构建，部署构建不受限制
+     */
+    private int maxBackgroundQueueSize = 100;
+
+    /**
+     * 部署时等待构建完成的最长时间（毫秒），包括排队时间
+     */
+    private long deployWaitTimeoutMs = 600000;
+}
@@ -2,7 +2,6 @@ package com.pd.pdaicodemother.controller;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.util.StrUtil;
-import cn.hutool.json.JSONUtil;
 import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.pd.pdaicodemother.ai.AiCodeGenTypeRoutingService;
@@ -12,9 +11,11 @@ import com.pd.pdaicodemother.annotation.AuthCheck;
 import com.pd.pdaicodemother.common.BaseResponse;
 import com.pd.pdaicodemother.common.DeleteRequest;
 import com.pd.pdaicodemother.common.ResultUtils;
+import com.pd.pdaicodemother.config.GenerationStreamConfig;
 import com.pd.pdaicodemother.exception.BusinessException;
 import com.pd.pdaicodemother.exception.ErrorCode;
 import com.pd.pdaicodemother.exception.ThrowUtils;
+import com.pd.pdaicodemother.manager.GenerationStreamRegistry;
 import com.pd.pdaicodemother.model.dto.app.AppAddRequest;
 import com.pd.pdaicodemother.model.dto.app.AppAdminUpdateRequest;
 import com.pd.pdaicodemother.model.dto.app.AppDeployRequest;
@@ -24,9 +25,12 @@ import com.pd.pdaicodemother.model.entity.App;
 import com.pd.pdaicodemother.model.entity.User;
 import com.pd.pdaicodemother.model.enums.CodeGenTypeEnum;
 import com.pd.pdaicodemother.model.vo.AppVO;
+import com.pd.pdaicodemother.model.vo.DeployJobVO;
+import com.pd.pdaicodemother.monitor.GenerationMetrics;
 import com.pd.pdaicodemother.service.AppService;
 import com.pd.pdaicodemother.service.ProjectDownloadService;
 import com.pd.pdaicodemother.service.UserService;
+import com.pd.pdaicodemother.utils.SseEventEncoder;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -40,12 +44,10 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import reactor.core.publisher.Flux;
-import reactor.core.publisher.Mono;
 
 import java.io.File;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 /**
  * 应用 控制层。
@@ -68,6 +70,12 @@ public class AppController {
     @Resource
     private AiCodeGenTypeRoutingService aiCodeGenTypeRoutingService;
 
+    @Resource
+    private GenerationStreamRegistry generationStreamRegistry;
+
+    @Resource
+    private GenerationStreamConfig generationStreamConfig;
+
     /**
      * 应用部署
      *
@@ -87,6 +95,33 @@ public class AppController {
         return ResultUtils.success(deployUrl);
     }
 
+    /**
+     * 异步部署应用（立即返回任务，通过任务状态接口轮询进度）
+     *
+     * @param appDeployRequest 部署请求
+     * @param request          请求
+     * @return 部署任务
+     */
+    @PostMapping("/deploy/async")
+    public BaseResponse<DeployJobVO> deployAppAsync(@RequestBody AppDeployRequest appDeployRequest, HttpServletRequest request) {
+        ThrowUtils.throwIf(appDeployRequest == null, ErrorCode.PARAMS_ERROR);
+        User loginUser = userService.getLoginUser(request);
+        return ResultUtils.success(appService.submitDeployJob(appDeployRequest.getAppId(), loginUser));
+    }
+
+    /**
+     * 查询部署任务状态
+     *
+     * @param jobId   任务 id
+     * @param request 请求
+     * @return 部署任务
+     */
+    @GetMapping("/deploy/job/{jobId}")
+    public BaseResponse<DeployJobVO> getDeployJob(@PathVariable String jobId, HttpServletRequest request) {
+        User loginUser = userService.getLoginUser(request);
+        return ResultUtils.success(appService.getDeployJob(jobId, loginUser));
+    }
+
 
     /**
      * 应用聊天生成代码（流式 SSE）
@@ -105,22 +140,21 @@ public class AppController {
         ThrowUtils.throwIf(message == null, ErrorCode.PARAMS_ERROR, "应用消息不能为空");
         // 2. 获取登录用户
         User loginUser = userService.getLoginUser(request);
-        // 3. 生成代码（流式）
+        // 3. 断线重连：挂到仍在进行的生成上补发错过的事件，不重新生成
+        String lastEventId = request.getHeader("Last-Event-ID");
+        if (generationStreamConfig.isEnabled() && StrUtil.isNotBlank(lastEventId)) {
+            return GenerationMetrics.trackActiveStream(
+                    generationStreamRegistry.resume(lastEventId, appId, loginUser.getId()));
+        }
+        // 4. 生成代码（流式）
         Flux<String> contentFlux = appService.chatToGenCode(appId, message, loginUser);
-        return contentFlux
-                .map(chunk -> {
-                    Map<String, String> wrapper = Map.of("d", chunk);
-                    String jsonData = JSONUtil.toJsonStr(wrapper);
-                    return ServerSentEvent.<String>builder()
-                            .data(jsonData)
-                            .build();
-                })
-                .concatWith(
-                        Mono.just(ServerSentEvent.<String>builder()
-                                .event("end")
-                                .data("")
-                                .build())
-                );
+        // 5. 编码为 SSE 事件，末尾追加结束事件
+        if (!generationStreamConfig.isEnabled()) {
+            return GenerationMetrics.trackActiveStream(SseEventEncoder.encode(contentFlux));
+        }
+        // 生成独立于连接运行，事件带 id 以便断线续传
+        return GenerationMetrics.trackActiveStream(
+                generationStreamRegistry.start(appId, loginUser.getId(), contentFlux));
     }
 
     /**
@@ -10,6 +10,7 @@ import com.pd.pdaicodemother.exception.ErrorCode;
 import com.pd.pdaicodemother.exception.ThrowUtils;
 import com.pd.pdaicodemother.model.dto.chathistory.ChatHistoryQueryRequest;
 import com.pd.pdaicodemother.model.entity.User;
+import com.pd.pdaicodemother.model.vo.ChatHistoryCursorPageVO;
 import com.pd.pdaicodemother.service.UserService;
 import jakarta.annotation.Resource;
 import jakarta.servlet.http.HttpServletRequest;
@@ -53,6 +54,24 @@ public class ChatHistoryController {
         return ResultUtils.success(result);
     }
 
+    /**
+     * 游标分页查询某个应用的对话历史（createTime + id 复合游标，不查询总数）
+     *
+     * @param appId    应用ID
+     * @param pageSize 页面大小
+     * @param cursor   上一页返回的 nextCursor，第一页不传
+     * @param request  请求
+     * @return 对话历史及下一页游标
+     */
+    @GetMapping("/app/{appId}/cursor")
+    public BaseResponse<ChatHistoryCursorPageVO> listAppChatHistoryByCursor(@PathVariable Long appId,
+                                                                           @RequestParam(defaultValue = "10") int pageSize,
+                                                                           @RequestParam(required = false) String cursor,
+                                                                           HttpServletRequest request) {
+        User loginUser = userService.getLoginUser(request);
+        ChatHistoryCursorPageVO result = chatHistoryService.listAppChatHistoryByCursor(appId, pageSize, cursor, loginUser);
+        return ResultUtils.success(result);
+    }
 
     /**
      * 管理员分页查询所有对话历史
@@ -1,20 +1,27 @@
 package com.pd.pdaicodemother.core;
 
-import cn.hutool.json.JSONUtil;
 import com.pd.pdaicodemother.ai.AiCodeGeneratorService;
 import com.pd.pdaicodemother.ai.AiCodeGeneratorServiceFactory;
 import com.pd.pdaicodemother.ai.model.HtmlCodeResult;
 import com.pd.pdaicodemother.ai.model.MultiFileCodeResult;
 import com.pd.pdaicodemother.ai.model.message.AiResponseMessage;
+import com.pd.pdaicodemother.ai.model.message.StreamMessage;
+import com.pd.pdaicodemother.ai.model.message.TokenUsageMessage;
 import com.pd.pdaicodemother.ai.model.message.ToolExecutedMessage;
 import com.pd.pdaicodemother.ai.model.message.ToolRequestMessage;
+import com.pd.pdaicodemother.config.CodeSaverConfig;
+import com.pd.pdaicodemother.core.buffer.ResponseBuffer;
 import com.pd.pdaicodemother.core.parser.CodeParserExecutor;
+import com.pd.pdaicodemother.core.parser.StreamingCodeParser;
 import com.pd.pdaicodemother.core.saver.CodeFileSaverExecutor;
+import com.pd.pdaicodemother.core.saver.StreamingCodeFileSaver;
 import com.pd.pdaicodemother.exception.BusinessException;
 import com.pd.pdaicodemother.exception.ErrorCode;
 import com.pd.pdaicodemother.model.enums.CodeGenTypeEnum;
+import com.pd.pdaicodemother.monitor.GenerationMetrics;
 import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.model.chat.response.ChatResponse;
+import dev.langchain4j.model.output.TokenUsage;
 import dev.langchain4j.service.TokenStream;
 import dev.langchain4j.service.tool.ToolExecution;
 import jakarta.annotation.Resource;
@@ -23,6 +30,9 @@ import org.springframework.stereotype.Service;
 import reactor.core.publisher.Flux;
 
 import java.io.File;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 
 /**
  * AI 代码生成外观类，组合生成和保存功能
@@ -34,6 +44,9 @@ public class AiCodeGeneratorFacade {
     @Resource
     private AiCodeGeneratorServiceFactory aiCodeGeneratorServiceFactory;
 
+    @Resource
+    private CodeSaverConfig codeSaverConfig;
+
     /**
      * 统一入口：根据类型生成并保存代码
      *
@@ -45,14 +58,14 @@ public class AiCodeGeneratorFacade {
         if (codeGenTypeEnum == null) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "生成类型为空");
         }
-        AiCodeGeneratorService aiCodeGeneratorService = aiCodeGeneratorServiceFactory.getAiCodeGeneratorService(appId, codeGenTypeEnum);
+        AiCodeGeneratorService aiCodeGeneratorService = aiCodeGeneratorServiceFactory.getAiCodeGeneratorService(codeGenTypeEnum, appId);
         return switch (codeGenTypeEnum) {
             case HTML -> {
-                HtmlCodeResult htmlCodeResult = aiCodeGeneratorService.generateHtmlCode(userMessage);
+                HtmlCodeResult htmlCodeResult = aiCodeGeneratorService.generateHtmlCode(appId, userMessage);
                 yield CodeFileSaverExecutor.saveCode(htmlCodeResult, codeGenTypeEnum, appId);
             }
             case MULTI_FILE -> {
-                MultiFileCodeResult multiFileCodeResult = aiCodeGeneratorService.generateMultiFileCode(userMessage);
+                MultiFileCodeResult multiFileCodeResult = aiCodeGeneratorService.generateMultiFileCode(appId, userMessage);
                 yield CodeFileSaverExecutor.saveCode(multiFileCodeResult, codeGenTypeEnum, appId);
             }
             default -> {
@@ -64,24 +77,39 @@ public class AiCodeGeneratorFacade {
 
     /**
      * 流式响应统一入口：根据类型生成并保存代码
+     * 返回类型化的消息流，由流处理器直接按类型处理，不再经过 JSON 序列化
      *
      * @param userMessage     用户提示词
      * @param codeGenTypeEnum 生成类型
-     * @return 保存的目录
+     * @return 流式消息
      */
-    public Flux<String> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId) {
+    public Flux<StreamMessage> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId) {
+        return generateAndSaveCodeStream(userMessage, codeGenTypeEnum, appId, null);
+    }
+
+    /**
+     * 流式响应统一入口：根据类型生成并保存代码
+     * HTML / MULTI_FILE 的原始响应写入共享的响应缓冲区，供代码保存兜底和对话历史读取，不再各自保存副本
+     *
+     * @param userMessage     用户提示词
+     * @param codeGenTypeEnum 生成类型
+     * @param responseBuffer  本次生成的响应缓冲区，可为空
+     * @return 流式消息
+     */
+    public Flux<StreamMessage> generateAndSaveCodeStream(String userMessage, CodeGenTypeEnum codeGenTypeEnum, Long appId,
+                                                         ResponseBuffer responseBuffer) {
         if (codeGenTypeEnum == null) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "生成类型为空");
         }
-        AiCodeGeneratorService aiCodeGeneratorService = aiCodeGeneratorServiceFactory.getAiCodeGeneratorService(appId, codeGenTypeEnum);
-        return switch (codeGenTypeEnum) {
+        AiCodeGeneratorService aiCodeGeneratorService = aiCodeGeneratorServiceFactory.getAiCodeGeneratorService(codeGenTypeEnum, appId);
+        Flux<StreamMessage> messageStream = switch (codeGenTypeEnum) {
             case HTML -> {
-                Flux<String> codeStream = aiCodeGeneratorService.generateHtmlCodeStream(userMessage);
-                yield processCodeStream(codeStream, codeGenTypeEnum, appId);
+                TokenStream tokenStream = aiCodeGeneratorService.generateHtmlCodeStream(appId, userMessage);
+                yield processCodeStream(processTokenStream(tokenStream), codeGenTypeEnum, appId, responseBuffer);
             }
             case MULTI_FILE -> {
-                Flux<String> codeStream = aiCodeGeneratorService.generateMultiFileCodeStream(userMessage);
-                yield processCodeStream(codeStream, codeGenTypeEnum, appId);
+                TokenStream tokenStream = aiCodeGeneratorService.generateMultiFileCodeStream(appId, userMessage);
+                yield processCodeStream(processTokenStream(tokenStream), codeGenTypeEnum, appId, responseBuffer);
             }
             case VUE_PROJECT -> {
                 TokenStream tokenStream = aiCodeGeneratorService.generateVueProjectCodeStream(appId, userMessage);
@@ -92,6 +120,7 @@ public class AiCodeGeneratorFacade {
                 throw new BusinessException(ErrorCode.SYSTEM_ERROR, errorMessage);
             }
         };
+        return GenerationMetrics.instrumentModelStream(messageStream, codeGenTypeEnum);
     }
 
     /**
@@ -101,54 +130,115 @@ public class AiCodeGeneratorFacade {
      * @param codeGenTypeEnum
      * @return
      */
-    private Flux<String> processCodeStream(Flux<String> codeStream, CodeGenTypeEnum codeGenTypeEnum, Long appId) {
-        // 当流式返回生成代码完成后，再保存代码
-        StringBuilder codeBuilder = new StringBuilder();
-        return codeStream
-                .doOnNext(chunk -> {
-                    // 实时收集代码片段
-                    codeBuilder.append(chunk);
-                })
+    private Flux<StreamMessage> processCodeStream(Flux<StreamMessage> codeStream, CodeGenTypeEnum codeGenTypeEnum, Long appId,
+                                                  ResponseBuffer responseBuffer) {
+        if (responseBuffer != null) {
+            codeStream = doOnCode(codeStream, responseBuffer::append);
+        }
+        if (codeSaverConfig.isStreaming()) {
+            return processCodeStreamWithStreamingSaver(codeStream, codeGenTypeEnum, appId, responseBuffer);
+        }
+        // 边接收边解析，所需代码块全部闭合后立即保存，不必等待流结束
+        StreamingCodeParser<?> parser = CodeParserExecutor.createStreamingParser(codeGenTypeEnum);
+        AtomicBoolean saved = new AtomicBoolean(false);
+        parser.onBlockComplete((language, code) -> {
+            if (parser.isComplete() && saved.compareAndSet(false, true)) {
+                saveParsedCode(parser.getResult(), codeGenTypeEnum, appId);
+            }
+        });
+        return doOnCode(codeStream, parser::feed)
+                .doOnComplete(() -> {
+                    // 流式返回完成后保存尚未保存的代码
+                    Object parsedResult = GenerationMetrics.recordParse(codeGenTypeEnum, "streaming", parser::finish);
+                    if (saved.compareAndSet(false, true)) {
+                        saveParsedCode(parsedResult, codeGenTypeEnum, appId);
+                    }
+                });
+    }
+
+    /**
+     * 处理代码流：代码块边生成边写入文件，流结束时文件已就绪
+     */
+    private Flux<StreamMessage> processCodeStreamWithStreamingSaver(Flux<StreamMessage> codeStream, CodeGenTypeEnum codeGenTypeEnum,
+                                                                    Long appId, ResponseBuffer responseBuffer) {
+        StreamingCodeFileSaver streamingSaver = CodeFileSaverExecutor.createStreamingSaver(codeGenTypeEnum, appId)
+                .bindRawContent(responseBuffer);
+        return doOnCode(codeStream, streamingSaver::feed)
                 .doOnComplete(() -> {
-                    // 流式返回完成后保存代码
                     try {
-                        String completeHtmlCode = codeBuilder.toString();
-                        Object parsedResult = CodeParserExecutor.executeParser(completeHtmlCode, codeGenTypeEnum);
-                        // 保存代码到文件
-                        File savedDir = CodeFileSaverExecutor.saveCode(parsedResult, codeGenTypeEnum, appId);
+                        File savedDir = GenerationMetrics.recordSave(codeGenTypeEnum, "streaming", streamingSaver::finish);
                         log.info("保存成功，路径为：" + savedDir.getAbsolutePath());
                     } catch (Exception e) {
                         log.error("保存失败: {}", e.getMessage());
                     }
-                });
+                })
+                // 出错或客户端断开时清理未完成的临时文件
+                .doOnError(error -> streamingSaver.abort())
+                .doOnCancel(streamingSaver::abort);
     }
 
     /**
-     * 将 TokenStream 转换为 Flux<String>，并传递工具调用信息
+     * 对流中的 AI 响应片段执行操作，其他消息原样透传
+     */
+    private static Flux<StreamMessage> doOnCode(Flux<StreamMessage> codeStream, Consumer<String> action) {
+        return codeStream.doOnNext(streamMessage -> {
+            if (streamMessage instanceof AiResponseMessage aiResponseMessage) {
+                action.accept(aiResponseMessage.getData());
+            }
+        });
+    }
+
+    /**
+     * 保存解析后的代码
+     */
+    private void saveParsedCode(Object parsedResult, CodeGenTypeEnum codeGenTypeEnum, Long appId) {
+        try {
+            // 保存代码到文件
+            File savedDir = CodeFileSaverExecutor.saveCode(parsedResult, codeGenTypeEnum, appId);
+            log.info("保存成功，路径为：" + savedDir.getAbsolutePath());
+        } catch (Exception e) {
+            log.error("保存失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 将 TokenStream 转换为 Flux<StreamMessage>，并传递工具调用信息；取消订阅时同时取消 TokenStream
      *
      * @param tokenStream TokenStream 对象
-     * @return Flux<String> 流式响应
+     * @return Flux<StreamMessage> 流式响应
      */
-    private Flux<String> processTokenStream(TokenStream tokenStream) {
+    private Flux<StreamMessage> processTokenStream(TokenStream tokenStream) {
         return Flux.create(sink -> {
+            // 客户端断开时取消上游：中止模型的 HTTP 响应，不再执行工具、不再发起下一轮请求
+            sink.onCancel(tokenStream::cancel);
+            // 已完成的工具调用轮次的累计用量
+            AtomicReference<TokenUsage> completedRoundsUsage = new AtomicReference<>();
             tokenStream
                     // 部分响应
                     .onPartialResponse((String partialResponse) -> {
-                        AiResponseMessage aiResponseMessage = new AiResponseMessage(partialResponse);
-                        sink.next(JSONUtil.toJsonStr(aiResponseMessage));
+                        sink.next(new AiResponseMessage(partialResponse));
                     })
                     // 工具调用开始
                     .onPartialToolExecutionRequest((index, toolExecutionRequest) -> {
-                        ToolRequestMessage toolRequestMessage = new ToolRequestMessage(toolExecutionRequest);
-                        sink.next(JSONUtil.toJsonStr(toolRequestMessage));
+                        sink.next(new ToolRequestMessage(toolExecutionRequest));
                     })
                     // 工具调用完成
                     .onToolExecuted((ToolExecution toolExecution) -> {
-                        ToolExecutedMessage toolExecutedMessage = new ToolExecutedMessage(toolExecution);
-                        sink.next(JSONUtil.toJsonStr(toolExecutedMessage));
+                        sink.next(new ToolExecutedMessage(toolExecution));
+                    })
+                    // 每轮工具调用请求完成时发出当前累计用量，中途取消或出错时已消耗的 Token 也能记录
+                    .onIntermediateResponse((ChatResponse response) -> {
+                        TokenUsage tokenUsage = completedRoundsUsage.accumulateAndGet(response.tokenUsage(), TokenUsage::sum);
+                        if (tokenUsage != null) {
+                            sink.next(new TokenUsageMessage(tokenUsage));
+                        }
                     })
-                    // 完整响应完成
+                    // 完整响应完成，发出累计的 Token 用量（含工具调用的多轮请求）
                     .onCompleteResponse((ChatResponse response) -> {
+                        TokenUsage tokenUsage = response.tokenUsage();
+                        if (tokenUsage != null) {
+                            sink.next(new TokenUsageMessage(tokenUsage));
+                        }
                         sink.complete();
                     })
                     // 错误处理
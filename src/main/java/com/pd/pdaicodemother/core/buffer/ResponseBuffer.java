@@ -0,0 +1,169 @@
+package com.pd.pdaicodemother.core.buffer;
+
+import cn.hutool.core.io.FileUtil;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 单次生成的 AI 响应缓冲区
+ * 由外观类、代码保存器和对话历史共享同一份内容，不再各自持有副本；
+ * 内容超过阈值后溢出到临时文件，堆内只保留不超过阈值的尾部。
+ * 采用引用计数管理生命周期：创建时计数为 1，每个额外的使用方 retain 一次，
+ * 用完后 release，计数归零时删除临时文件
+ */
+@Slf4j
+public class ResponseBuffer {
+
+    private final int memoryThreshold;
+
+    private final String spillDir;
+
+    private final AtomicInteger refCount = new AtomicInteger(1);
+
+    /**
+     * 堆内缓冲（溢出后作为写文件的缓冲）
+     */
+    private final StringBuilder memory = new StringBuilder();
+
+    private long length;
+
+    private Path spillFile;
+
+    private BufferedWriter spillWriter;
+
+    /**
+     * 溢出失败后不再重试，内容保留在内存中
+     */
+    private boolean spillFailed;
+
+    public ResponseBuffer(int memoryThreshold, String spillDir) {
+        this.memoryThreshold = memoryThreshold;
+        this.spillDir = spillDir;
+    }
+
+    /**
+     * 追加内容
+     *
+     * @param content 内容
+     */
+    public synchronized void append(CharSequence content) {
+        if (content == null || content.isEmpty()) {
+            return;
+        }
+        ensureAlive();
+        memory.append(content);
+        length += content.length();
+        if (memory.length() > memoryThreshold && !spillFailed) {
+            spill();
+        }
+    }
+
+    /**
+     * 内容长度（字符数）
+     */
+    public synchronized long length() {
+        return length;
+    }
+
+    /**
+     * 是否已溢出到磁盘
+     */
+    public synchronized boolean isSpilled() {
+        return spillFile != null;
+    }
+
+    /**
+     * 读取完整内容（只在最终落库等必须使用字符串的地方调用）
+     *
+     * @return 完整内容
+     */
+    @Override
+    public synchronized String toString() {
+        ensureAlive();
+        if (spillFile == null) {
+            return memory.toString();
+        }
+        try {
+            spillWriter.flush();
+            String spilled = Files.readString(spillFile, StandardCharsets.UTF_8);
+            return spilled.concat(memory.toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取响应缓冲文件失败", e);
+        }
+    }
+
+    /**
+     * 增加一个使用方
+     *
+     * @return 当前缓冲区
+     */
+    public ResponseBuffer retain() {
+        int count = refCount.getAndUpdate(current -> current > 0 ? current + 1 : current);
+        if (count <= 0) {
+            throw new IllegalStateException("响应缓冲区已释放");
+        }
+        return this;
+    }
+
+    /**
+     * 释放一个使用方，最后一个释放时清理资源
+     */
+    public void release() {
+        int count = refCount.decrementAndGet();
+        if (count == 0) {
+            deallocate();
+        } else if (count < 0) {
+            refCount.set(0);
+            log.warn("响应缓冲区重复释放");
+        }
+    }
+
+    private void ensureAlive() {
+        if (refCount.get() <= 0) {
+            throw new IllegalStateException("响应缓冲区已释放");
+        }
+    }
+
+    /**
+     * 将堆内内容写入临时文件
+     */
+    private void spill() {
+        try {
+            if (spillWriter == null) {
+                FileUtil.mkdir(spillDir);
+                spillFile = Files.createTempFile(Path.of(spillDir), "response_", ".txt");
+                spillWriter = Files.newBufferedWriter(spillFile, StandardCharsets.UTF_8);
+                log.info("响应内容超过 {} 字符，溢出到文件: {}", memoryThreshold, spillFile);
+            }
+            spillWriter.append(memory);
+            memory.setLength(0);
+        } catch (IOException e) {
+            // 写文件失败时保留在内存中，不影响生成
+            spillFailed = true;
+            log.error("响应缓冲溢出到文件失败: {}", e.getMessage());
+        }
+    }
+
+    private synchronized void deallocate() {
+        memory.setLength(0);
+        memory.trimToSize();
+        if (spillFile == null) {
+            return;
+        }
+        try {
+            spillWriter.close();
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            log.warn("清理响应缓冲文件失败: {}, 错误: {}", spillFile, e.getMessage());
+        }
+        spillWriter = null;
+        spillFile = null;
+    }
+}
@@ -0,0 +1,300 @@
+package com.pd.pdaicodemother.core.builder;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import com.pd.pdaicodemother.config.NodeModulesCacheConfig;
+import com.pd.pdaicodemother.monitor.GenerationMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Vue 项目依赖缓存
+ * 按 package.json 和锁文件内容的哈希在共享目录中各安装一份依赖，项目的 node_modules 以符号链接指向缓存，
+ * 依赖相同的项目不再重复执行 npm install；同一组依赖并发的安装只执行一次；
+ * 构建期间持有依赖组的租约，有租约的依赖组不会被淘汰
+ */
+@Slf4j
+@Component
+public class NodeModulesCache {
+
+    private static final String NODE_MODULES = "node_modules";
+
+    private static final String PACKAGE_JSON = "package.json";
+
+    /**
+     * 参与哈希并复制到安装目录的文件（存在时）
+     */
+    private static final List<String> DEPENDENCY_FILES = List.of("package-lock.json", "yarn.lock", "pnpm-lock.yaml", ".npmrc");
+
+    private static final String STAGING_PREFIX = "staging-";
+
+    @Resource
+    private NodeModulesCacheConfig nodeModulesCacheConfig;
+
+    /**
+     * 每组依赖一把锁（构建运行在虚拟线程中，不使用 synchronized 以免长时间占用载体线程）
+     */
+    private final Map<String, ReentrantLock> keyLocks = new ConcurrentHashMap<>();
+
+    /**
+     * 每组依赖当前的租约数（在该组的锁内增加，淘汰时在同一把锁内检查）
+     */
+    private final Map<String, Integer> leaseCounts = new ConcurrentHashMap<>();
+
+    /**
+     * 清理上次运行中断时残留的安装目录
+     */
+    @PostConstruct
+    public void cleanStaging() {
+        Path cacheRoot = Paths.get(nodeModulesCacheConfig.getCacheDir());
+        if (!nodeModulesCacheConfig.isEnabled() || !Files.isDirectory(cacheRoot)) {
+            return;
+        }
+        try (Stream<Path> entries = Files.list(cacheRoot)) {
+            entries.filter(path -> path.getFileName().toString().startsWith(STAGING_PREFIX))
+                    .forEach(path -> FileUtil.del(path.toFile()));
+        } catch (IOException e) {
+            log.warn("清理依赖缓存残留目录失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 为项目准备 node_modules：命中缓存时直接链接，未命中时在缓存目录中安装后再链接
+     * 返回的租约需要在构建结束后关闭，持有期间该组依赖不会被淘汰
+     *
+     * @param projectDir 项目根目录
+     * @param installer  在指定目录中执行 npm install，返回是否成功
+     * @return 依赖租约，准备失败时返回 null
+     */
+    public Lease acquire(File projectDir, Predicate<File> installer) {
+        if (!nodeModulesCacheConfig.isEnabled()) {
+            return installInProject(projectDir, installer);
+        }
+        String key;
+        try {
+            key = computeKey(projectDir);
+        } catch (IOException e) {
+            log.warn("计算依赖哈希失败，直接在项目中安装: {}", e.getMessage());
+            return installInProject(projectDir, installer);
+        }
+        Path cacheRoot = Paths.get(nodeModulesCacheConfig.getCacheDir()).toAbsolutePath();
+        Path entryDir = cacheRoot.resolve(key);
+        Path cachedModules = entryDir.resolve(NODE_MODULES);
+        ReentrantLock lock = keyLocks.computeIfAbsent(key, k -> new ReentrantLock());
+        boolean hit;
+        lock.lock();
+        try {
+            hit = Files.isDirectory(cachedModules);
+            if (!hit && !install(projectDir, cacheRoot, entryDir, key, installer)) {
+                return null;
+            }
+            touch(entryDir);
+            leaseCounts.merge(key, 1, Integer::sum);
+        } finally {
+            lock.unlock();
+        }
+        Lease lease = new Lease(this, key);
+        GenerationMetrics.recordNodeModulesCache(hit);
+        if (!link(projectDir.toPath().resolve(NODE_MODULES), cachedModules)) {
+            // 不支持符号链接（如未授权的 Windows 账户）时退回到项目内安装
+            lease.close();
+            return installInProject(projectDir, installer);
+        }
+        log.info("项目 {} 的依赖{}缓存: {}", projectDir.getName(), hit ? "命中" : "已安装到", key);
+        if (!hit) {
+            evict(cacheRoot, key);
+        }
+        return lease;
+    }
+
+    /**
+     * 直接在项目目录中安装依赖，不涉及缓存，返回的租约不占用任何依赖组
+     */
+    private Lease installInProject(File projectDir, Predicate<File> installer) {
+        return installer.test(projectDir) ? new Lease(this, null) : null;
+    }
+
+    private void release(String key) {
+        leaseCounts.computeIfPresent(key, (k, count) -> count > 1 ? count - 1 : null);
+    }
+
+    /**
+     * 依赖文件内容的哈希，作为缓存目录名
+     */
+    private String computeKey(File projectDir) throws IOException {
+        ByteArrayOutputStream content = new ByteArrayOutputStream();
+        content.write(Files.readAllBytes(projectDir.toPath().resolve(PACKAGE_JSON)));
+        for (String fileName : DEPENDENCY_FILES) {
+            Path file = projectDir.toPath().resolve(fileName);
+            if (Files.isRegularFile(file)) {
+                content.write(fileName.getBytes(StandardCharsets.UTF_8));
+                content.write(Files.readAllBytes(file));
+            }
+        }
+        return DigestUtil.sha256Hex(content.toByteArray());
+    }
+
+    /**
+     * 在独立的临时目录中安装依赖，成功后整体移动到缓存目录，避免其他构建看到安装了一半的依赖
+     */
+    private boolean install(File projectDir, Path cacheRoot, Path entryDir, String key, Predicate<File> installer) {
+        Path stagingDir = cacheRoot.resolve(STAGING_PREFIX + key + "-" + IdUtil.fastSimpleUUID());
+        try {
+            Files.createDirectories(stagingDir);
+            Files.copy(projectDir.toPath().resolve(PACKAGE_JSON), stagingDir.resolve(PACKAGE_JSON));
+            for (String fileName : DEPENDENCY_FILES) {
+                Path file = projectDir.toPath().resolve(fileName);
+                if (Files.isRegularFile(file)) {
+                    Files.copy(file, stagingDir.resolve(fileName));
+                }
+            }
+            log.info("依赖缓存未命中，在缓存目录中安装: {}", key);
+            if (!installer.test(stagingDir.toFile())) {
+                return false;
+            }
+            // 旧的不完整目录（如安装后 node_modules 被手动删除）先清掉
+            if (Files.exists(entryDir)) {
+                FileUtil.del(entryDir.toFile());
+            }
+            try {
+                Files.move(stagingDir, entryDir, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException | DirectoryNotEmptyException e) {
+                // 其他实例已安装好同一组依赖，使用已有的
+                log.info("依赖缓存已由其他构建安装: {}", key);
+            }
+            return Files.isDirectory(entryDir.resolve(NODE_MODULES));
+        } catch (IOException e) {
+            log.error("安装依赖缓存失败: {}, 错误信息: {}", key, e.getMessage());
+            return false;
+        } finally {
+            if (Files.exists(stagingDir)) {
+                FileUtil.del(stagingDir.toFile());
+            }
+        }
+    }
+
+    /**
+     * 将项目的 node_modules 链接到缓存（已指向缓存时保持不变，原有的目录或失效的链接会被替换）
+     */
+    private boolean link(Path link, Path target) {
+        try {
+            if (Files.isSymbolicLink(link)) {
+                if (Files.readSymbolicLink(link).equals(target) && Files.isDirectory(link)) {
+                    return true;
+                }
+                Files.delete(link);
+            } else if (Files.exists(link)) {
+                FileUtil.del(link.toFile());
+            }
+            Files.createSymbolicLink(link, target);
+            return true;
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            log.warn("链接依赖缓存失败: {}, 错误信息: {}", link, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 更新最近使用时间，用于淘汰
+     */
+    private void touch(Path entryDir) {
+        try {
+            Files.setLastModifiedTime(entryDir, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            log.warn("更新依赖缓存使用时间失败: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * 超出数量上限时删除最久未使用的依赖组（正在安装或有构建持有租约的跳过），链接到被删除缓存的项目下次构建时会重新安装
+     */
+    private void evict(Path cacheRoot, String currentKey) {
+        int maxEntries = nodeModulesCacheConfig.getMaxEntries();
+        List<Path> entries;
+        try (Stream<Path> stream = Files.list(cacheRoot)) {
+            entries = stream.filter(Files::isDirectory)
+                    .filter(path -> !path.getFileName().toString().startsWith(STAGING_PREFIX))
+                    .sorted(Comparator.comparing(NodeModulesCache::lastModified))
+                    .toList();
+        } catch (IOException e) {
+            log.warn("读取依赖缓存目录失败: {}", e.getMessage());
+            return;
+        }
+        for (int i = 0; i < entries.size() - maxEntries; i++) {
+            Path entry = entries.get(i);
+            String key = entry.getFileName().toString();
+            ReentrantLock lock = keyLocks.computeIfAbsent(key, k -> new ReentrantLock());
+            if (key.equals(currentKey) || !lock.tryLock()) {
+                continue;
+            }
+            try {
+                if (leaseCounts.containsKey(key)) {
+                    continue;
+                }
+                FileUtil.del(entry.toFile());
+                log.info("淘汰依赖缓存: {}", key);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    /**
+     * 依赖组租约，构建结束后关闭（重复关闭无影响）
+     */
+    public static final class Lease implements AutoCloseable {
+
+        private final NodeModulesCache cache;
+
+        /**
+         * 依赖组，为空表示依赖安装在项目内
+         */
+        private final String key;
+
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private Lease(NodeModulesCache cache, String key) {
+            this.cache = cache;
+            this.key = key;
+        }
+
+        @Override
+        public void close() {
+            if (key != null && closed.compareAndSet(false, true)) {
+                cache.release(key);
+            }
+        }
+    }
+}
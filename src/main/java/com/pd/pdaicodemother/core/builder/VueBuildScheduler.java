@@ -0,0 +1,264 @@
+package com.pd.pdaicodemother.core.builder;
+
+import com.pd.pdaicodemother.config.VueBuildSchedulerConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Vue 项目构建调度器
+ * 固定数量的工作线程从优先队列中取构建任务执行，避免大量生成同时完成时并发执行 npm 占满 CPU 和磁盘；
+ * 同一项目同时最多一个构建在执行、一个在排队，排队期间的重复请求合并为一次；部署构建优先于后台构建
+ */
+@Slf4j
+@Component
+public class VueBuildScheduler {
+
+    /**
+     * 构建优先级，声明顺序即执行顺序
+     */
+    public enum BuildPriority {
+
+        /**
+         * 用户主动部署，调用方在等待结果
+         */
+        DEPLOY,
+
+        /**
+         * 生成完成后的后台构建
+         */
+        BACKGROUND
+    }
+
+    @Resource
+    private VueProjectBuilder vueProjectBuilder;
+
+    @Resource
+    private VueBuildSchedulerConfig vueBuildSchedulerConfig;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 待执行的构建，只包含当前没有构建在执行的项目
+     */
+    private final PriorityBlockingQueue<BuildJob> queue = new PriorityBlockingQueue<>(16,
+            Comparator.comparing((BuildJob job) -> job.priority).thenComparingLong(job -> job.sequence));
+
+    /**
+     * 每个项目正在执行和排队的构建，由 lock 保护
+     */
+    private final Map<String, ProjectBuilds> projects = new HashMap<>();
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final AtomicLong sequence = new AtomicLong();
+
+    private final AtomicInteger runningCount = new AtomicInteger();
+
+    private final List<Thread> workers = new ArrayList<>();
+
+    private volatile boolean running;
+
+    private Counter mergedCounter;
+
+    private Counter rejectedCounter;
+
+    @PostConstruct
+    public void start() {
+        Gauge.builder("vue.build.queue.size", queue, PriorityBlockingQueue::size)
+                .description("排队中的 Vue 项目构建数")
+                .register(meterRegistry);
+        Gauge.builder("vue.build.active", runningCount, AtomicInteger::get)
+                .description("执行中的 Vue 项目构建数")
+                .register(meterRegistry);
+        mergedCounter = Counter.builder("vue.build.merged")
+                .description("与排队中的构建合并的请求数")
+                .register(meterRegistry);
+        rejectedCounter = Counter.builder("vue.build.rejected")
+                .description("队列已满被丢弃的后台构建数")
+                .register(meterRegistry);
+        running = true;
+        int concurrency = Math.max(1, vueBuildSchedulerConfig.getConcurrency());
+        for (int i = 0; i < concurrency; i++) {
+            workers.add(Thread.ofVirtual().name("vue-builder-" + i).start(this::runLoop));
+        }
+        log.info("Vue 项目构建调度已启动，并发数: {}", concurrency);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        workers.forEach(Thread::interrupt);
+        // 未执行的构建直接结束，部署方收到失败；排在执行中构建之后的不在队列里，需从各项目的状态中取出
+        lock.lock();
+        try {
+            queue.clear();
+            for (ProjectBuilds builds : projects.values()) {
+                if (builds.pending != null) {
+                    builds.pending.future.complete(false);
+                    builds.pending = null;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 提交构建
+     * 项目已有排队中的构建时合并到该构建（部署请求会提升其优先级）；
+     * 项目正在构建时排在其后，避免基于旧代码的构建结果被当作最新结果
+     *
+     * @param projectPath 项目根目录路径
+     * @param priority    优先级
+     * @return 构建结果，true 表示构建成功
+     */
+    public CompletableFuture<Boolean> submit(String projectPath, BuildPriority priority) {
+        lock.lock();
+        try {
+            if (!running) {
+                log.warn("构建调度已停止，跳过构建：{}", projectPath);
+                return CompletableFuture.completedFuture(false);
+            }
+            ProjectBuilds builds = projects.computeIfAbsent(projectPath, key -> new ProjectBuilds());
+            BuildJob pending = builds.pending;
+            if (pending != null) {
+                mergedCounter.increment();
+                if (priority.compareTo(pending.priority) < 0) {
+                    // PriorityBlockingQueue 不会因元素变化重新排序，移出后再放回
+                    boolean queued = queue.remove(pending);
+                    pending.priority = priority;
+                    if (queued) {
+                        queue.offer(pending);
+                    }
+                }
+                return pending.future;
+            }
+            if (priority == BuildPriority.BACKGROUND && queue.size() >= vueBuildSchedulerConfig.getMaxBackgroundQueueSize()) {
+                rejectedCounter.increment();
+                if (builds.running == null) {
+                    projects.remove(projectPath);
+                }
+                log.warn("构建队列已满，跳过后台构建：{}", projectPath);
+                return CompletableFuture.completedFuture(false);
+            }
+            BuildJob job = new BuildJob(projectPath, priority, sequence.incrementAndGet());
+            builds.pending = job;
+            if (builds.running == null) {
+                queue.offer(job);
+            }
+            return job.future;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void runLoop() {
+        while (running) {
+            BuildJob job;
+            try {
+                job = queue.take();
+            } catch (InterruptedException e) {
+                break;
+            }
+            lock.lock();
+            try {
+                ProjectBuilds builds = projects.get(job.projectPath);
+                if (builds == null || builds.pending != job) {
+                    // 取出后调度器已停止，构建已在 shutdown 中结束
+                    continue;
+                }
+                builds.pending = null;
+                builds.running = job;
+            } finally {
+                lock.unlock();
+            }
+            execute(job);
+        }
+    }
+
+    private void execute(BuildJob job) {
+        Timer.builder("vue.build.queue.wait")
+                .description("Vue 项目构建排队时间")
+                .tag("priority", job.priority.name().toLowerCase())
+                .register(meterRegistry)
+                .record(System.nanoTime() - job.submitNanos, TimeUnit.NANOSECONDS);
+        runningCount.incrementAndGet();
+        boolean success = false;
+        try {
+            success = vueProjectBuilder.buildProject(job.projectPath);
+        } catch (Exception e) {
+            log.error("构建 Vue 项目时发生异常: {}", e.getMessage(), e);
+        } finally {
+            runningCount.decrementAndGet();
+            lock.lock();
+            try {
+                ProjectBuilds builds = projects.get(job.projectPath);
+                builds.running = null;
+                if (builds.pending != null) {
+                    // 构建期间又有新的请求，现在可以执行
+                    queue.offer(builds.pending);
+                } else {
+                    projects.remove(job.projectPath);
+                }
+            } finally {
+                lock.unlock();
+            }
+            job.future.complete(success);
+        }
+    }
+
+    /**
+     * 同一项目的构建状态
+     */
+    private static final class ProjectBuilds {
+
+        private BuildJob running;
+
+        private BuildJob pending;
+    }
+
+    /**
+     * 构建任务
+     */
+    private static final class BuildJob {
+
+        private final String projectPath;
+
+        private final long sequence;
+
+        private final long submitNanos = System.nanoTime();
+
+        private final CompletableFuture<Boolean> future = new CompletableFuture<>();
+
+        /**
+         * 由 lock 保护，只在移出队列后修改
+         */
+        private volatile BuildPriority priority;
+
+        BuildJob(String projectPath, BuildPriority priority, long sequence) {
+            this.projectPath = projectPath;
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+}
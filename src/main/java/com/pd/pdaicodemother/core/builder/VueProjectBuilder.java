@@ -1,10 +1,27 @@
 package com.pd.pdaicodemother.core.builder;
 
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.HexUtil;
 import cn.hutool.core.util.RuntimeUtil;
+import com.pd.pdaicodemother.monitor.GenerationMetrics;
+import jakarta.annotation.Resource;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
 @Slf4j
@@ -12,20 +29,17 @@ import java.util.concurrent.TimeUnit;
 public class VueProjectBuilder {
 
     /**
-     * 异步构建项目（不阻塞主流程）
-     *
-     * @param projectPath 项目路径
+     * 最近一次成功构建时源码的指纹
      */
-    public void buildProjectAsync(String projectPath) {
-        // 在单独的线程中执行构建，避免阻塞主流程
-        Thread.ofVirtual().name("vue-builder-" + System.currentTimeMillis()).start(() -> {
-            try {
-                buildProject(projectPath);
-            } catch (Exception e) {
-                log.error("异步构建 Vue 项目时发生异常: {}", e.getMessage(), e);
-            }
-        });
-    }
+    private static final String FINGERPRINT_FILE = ".build-fingerprint";
+
+    /**
+     * 不参与指纹计算的文件和目录（依赖和构建产物）
+     */
+    private static final Set<String> FINGERPRINT_IGNORED_NAMES = Set.of("node_modules", "dist", FINGERPRINT_FILE);
+
+    @Resource
+    private NodeModulesCache nodeModulesCache;
 
     /**
      * 构建 Vue 项目
@@ -45,27 +59,92 @@ public class VueProjectBuilder {
             log.error("项目根目录下不存在package.json文件：{}", projectPath);
             return false;
         }
-        // npm install
-        log.info("开始构建 Vue 项目：{}", projectPath);
-        if (!executeNpmInstall(projectDir)) {
-            log.error("npm install 失败");
-            return false;
+        // 源码与上次成功构建时相同且产物仍在，直接使用已有的 dist
+        File distDir = new File(projectDir, "dist");
+        File fingerprintFile = new File(projectDir, FINGERPRINT_FILE);
+        String fingerprint = computeFingerprint(projectDir);
+        if (fingerprint != null && distDir.isDirectory() && fingerprintFile.isFile()
+                && fingerprint.equals(FileUtil.readUtf8String(fingerprintFile).trim())) {
+            log.info("Vue 项目源码未变化，跳过构建：{}", projectPath);
+            GenerationMetrics.recordBuildSkipped();
+            return true;
         }
-        // npm run build
-        if (!executeNpmBuild(projectDir)) {
-            log.error("npm run build 构建失败");
-            return false;
+        // 构建失败时不能保留旧指纹，否则会误用失败前残留的 dist
+        FileUtil.del(fingerprintFile);
+        // npm install（依赖相同的项目共用缓存中的 node_modules，未命中时才安装），租约持有到 npm run build 结束
+        log.info("开始构建 Vue 项目：{}", projectPath);
+        String builtFingerprint;
+        try (NodeModulesCache.Lease lease = nodeModulesCache.acquire(projectDir, this::executeNpmInstall)) {
+            if (lease == null) {
+                log.error("npm install 失败");
+                return false;
+            }
+            // 在项目内安装依赖时会生成或改写 package-lock.json，安装后重新计算指纹，否则下次部署会因锁文件而重复构建
+            builtFingerprint = computeFingerprint(projectDir);
+            // npm run build
+            if (!executeNpmBuild(projectDir)) {
+                log.error("npm run build 构建失败");
+                return false;
+            }
         }
         // 检查dist目录是否生成
-        File distDir = new File(projectDir, "dist");
         if (!distDir.exists() || !distDir.isDirectory()) {
             log.error("项目构建失败，未找到dist目录：{}", projectPath);
             return false;
         }
+        // 记录构建前的源码指纹，构建期间源码若有变化，下次构建时指纹不一致会重新构建
+        if (builtFingerprint != null) {
+            FileUtil.writeUtf8String(builtFingerprint, fingerprintFile);
+        }
         log.info("Vue 项目构建成功：{}", projectPath);
         return true;
     }
 
+    /**
+     * 计算源码指纹：按相对路径排序后依次摘要路径和内容，忽略依赖和构建产物
+     *
+     * @return 指纹，读取失败时返回 null（视为需要构建）
+     */
+    private String computeFingerprint(File projectDir) {
+        Path root = projectDir.toPath();
+        List<Path> files = new ArrayList<>();
+        try {
+            Files.walkFileTree(root, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    return !dir.equals(root) && FINGERPRINT_IGNORED_NAMES.contains(dir.getFileName().toString())
+                            ? FileVisitResult.SKIP_SUBTREE : FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    // 不跟随符号链接，链接到依赖缓存的 node_modules 在这里出现
+                    if (attrs.isRegularFile() && !FINGERPRINT_IGNORED_NAMES.contains(file.getFileName().toString())) {
+                        files.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+            files.sort(null);
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            for (Path file : files) {
+                digest.update(root.relativize(file).toString().replace(File.separatorChar, '/').getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+                try (InputStream in = Files.newInputStream(file)) {
+                    int read;
+                    while ((read = in.read(buffer)) != -1) {
+                        digest.update(buffer, 0, read);
+                    }
+                }
+                digest.update((byte) 0);
+            }
+            return HexUtil.encodeHexStr(digest.digest());
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.warn("计算项目源码指纹失败: {}, 错误信息: {}", projectDir.getAbsolutePath(), e.getMessage());
+            return null;
+        }
+    }
 
     /**
      * 执行 npm install 命令
@@ -73,7 +152,7 @@ public class VueProjectBuilder {
     private boolean executeNpmInstall(File projectDir) {
         log.info("执行 npm install...");
         String command = String.format("%s install", buildCommand("npm"));
-        return executeCommand(projectDir, command, 300); // 5分钟超时
+        return executeTimedCommand("install", projectDir, command, 300); // 5分钟超时
     }
 
     /**
@@ -82,7 +161,19 @@ public class VueProjectBuilder {
     private boolean executeNpmBuild(File projectDir) {
         log.info("执行 npm run build...");
         String command = String.format("%s run build", buildCommand("npm"));
-        return executeCommand(projectDir, command, 180); // 3分钟超时
+        return executeTimedCommand("build", projectDir, command, 180); // 3分钟超时
+    }
+
+    /**
+     * 执行命令并记录耗时
+     *
+     * @param step 构建步骤（install / build）
+     */
+    private boolean executeTimedCommand(String step, File workingDir, String command, int timeoutSeconds) {
+        long startNanos = System.nanoTime();
+        boolean success = executeCommand(workingDir, command, timeoutSeconds);
+        GenerationMetrics.recordNpmStep(step, System.nanoTime() - startNanos, success);
+        return success;
     }
 
     /**
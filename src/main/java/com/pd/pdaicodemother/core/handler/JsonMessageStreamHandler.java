@@ -4,12 +4,16 @@ import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.StrUtil;
 import cn.hutool.json.JSONObject;
 import cn.hutool.json.JSONUtil;
+import com.pd.pdaicodemother.ai.model.AiConstant;
 import com.pd.pdaicodemother.ai.model.message.*;
 import com.pd.pdaicodemother.ai.constant.AppConstant;
 import com.pd.pdaicodemother.ai.tools.BaseTool;
 import com.pd.pdaicodemother.ai.tools.ToolManager;
-import com.pd.pdaicodemother.core.builder.VueProjectBuilder;
+import com.pd.pdaicodemother.core.buffer.ResponseBuffer;
+import com.pd.pdaicodemother.core.builder.VueBuildScheduler;
+import com.pd.pdaicodemother.core.builder.VueBuildScheduler.BuildPriority;
 import com.pd.pdaicodemother.model.entity.User;
+import com.pd.pdaicodemother.model.enums.CodeGenTypeEnum;
 import com.pd.pdaicodemother.model.enums.MessageTypeEnum;
 import com.pd.pdaicodemother.service.ChatHistoryService;
 import jakarta.annotation.Resource;
@@ -18,8 +22,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 import reactor.core.publisher.Flux;
 
+import java.io.File;
 import java.util.HashSet;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * JSON 消息流处理器
@@ -30,64 +36,81 @@ import java.util.Set;
 public class JsonMessageStreamHandler {
 
     @Resource
-    private VueProjectBuilder vueProjectBuilder;
+    private VueBuildScheduler vueBuildScheduler;
     @Autowired
     private ToolManager toolManager;
 
     /**
      * 处理 TokenStream（VUE_PROJECT）
-     * 解析 JSON 消息并重组为完整的响应格式
+     * 按消息类型直接处理，重组为完整的响应格式
      *
      * @param originFlux         原始流
      * @param chatHistoryService 聊天历史服务
      * @param appId              应用ID
      * @param loginUser          登录用户
+     * @param responseBuffer     响应缓冲区，收集数据用于生成后端记忆格式（处理完成后释放）
      * @return 处理后的流
      */
-    public Flux<String> handle(Flux<String> originFlux,
+    public Flux<String> handle(Flux<StreamMessage> originFlux,
                                ChatHistoryService chatHistoryService,
-                               long appId, User loginUser) {
-        // 收集数据用于生成后端记忆格式
-        StringBuilder chatHistoryStringBuilder = new StringBuilder();
+                               long appId, User loginUser, ResponseBuffer responseBuffer) {
         // 用于跟踪已经见过的工具ID，判断是否是第一次调用
         Set<String> seenToolIds = new HashSet<>();
+        // 截至目前的累计 Token 用量，随 AI 消息一起保存（中断和失败时为已完成轮次的用量）
+        AtomicReference<TokenUsageMessage> tokenUsage = new AtomicReference<>();
         return originFlux
-                .map(chunk -> {
-                    // 解析每个 JSON 消息块
-                    return handleJsonMessageChunk(chunk, chatHistoryStringBuilder, seenToolIds);
+                .doOnNext(streamMessage -> {
+                    if (streamMessage instanceof TokenUsageMessage tokenUsageMessage) {
+                        tokenUsage.set(tokenUsageMessage);
+                    }
+                })
+                .map(streamMessage -> {
+                    // 处理每条消息
+                    return handleStreamMessage(streamMessage, responseBuffer, seenToolIds);
                 })
                 .filter(StrUtil::isNotEmpty) // 过滤空字串
                 .doOnComplete(() -> {
                     // 流式响应完成后，添加 AI 消息到对话历史
-                    String aiResponse = chatHistoryStringBuilder.toString();
-                    chatHistoryService.addChatMessage(appId, aiResponse, MessageTypeEnum.AI.getValue(), loginUser.getId());
-                    String projectPath = AppConstant.CODE_OUTPUT_ROOT_DIR + "vue_projcet_" + appId;
-                    vueProjectBuilder.buildProjectAsync(projectPath);
+                    chatHistoryService.addChatMessage(appId, responseBuffer, MessageTypeEnum.AI.getValue(), loginUser.getId(),
+                            tokenUsage.get());
+                    // 提交后台构建，由构建调度器排队执行
+                    String projectPath = AppConstant.CODE_OUTPUT_ROOT_DIR + File.separator
+                            + CodeGenTypeEnum.VUE_PROJECT.getValue() + "_" + appId;
+                    vueBuildScheduler.submit(projectPath, BuildPriority.BACKGROUND);
+                })
+                .doOnCancel(() -> {
+                    // 客户端断开，保存已生成的部分并标记为中断，项目不完整，不再构建
+                    chatHistoryService.addChatMessage(appId, responseBuffer + AiConstant.GENERATION_INTERRUPTED_MARK,
+                            MessageTypeEnum.AI.getValue(), loginUser.getId(), tokenUsage.get());
                 })
                 .doOnError(error -> {
                     // 如果AI回复失败，也要记录错误消息
                     String errorMessage = "AI回复失败: " + error.getMessage();
-                    chatHistoryService.addChatMessage(appId, errorMessage, MessageTypeEnum.AI.getValue(), loginUser.getId());
-                });
+                    chatHistoryService.addChatMessage(appId, errorMessage, MessageTypeEnum.AI.getValue(), loginUser.getId(),
+                            tokenUsage.get());
+                })
+                .doFinally(signalType -> responseBuffer.release());
     }
 
     /**
-     * 解析并收集 TokenStream 数据
+     * 处理并收集 TokenStream 数据（包内可见，供基准测试直接调用）
      */
-    private String handleJsonMessageChunk(String chunk, StringBuilder chatHistoryStringBuilder, Set<String> seenToolIds) {
-        // 解析 JSON
-        StreamMessage streamMessage = JSONUtil.toBean(chunk, StreamMessage.class);
+    String handleStreamMessage(StreamMessage streamMessage, ResponseBuffer responseBuffer, Set<String> seenToolIds) {
         StreamMessageTypeEnum typeEnum = StreamMessageTypeEnum.getEnumByValue(streamMessage.getType());
+        if (typeEnum == null) {
+            log.error("不支持的消息类型: {}", streamMessage.getType());
+            return "";
+        }
         switch (typeEnum) {
             case AI_RESPONSE -> {
-                AiResponseMessage aiMessage = JSONUtil.toBean(chunk, AiResponseMessage.class);
+                AiResponseMessage aiMessage = (AiResponseMessage) streamMessage;
                 String data = aiMessage.getData();
                 // 直接拼接响应
-                chatHistoryStringBuilder.append(data);
+                responseBuffer.append(data);
                 return data;
             }
             case TOOL_REQUEST -> {
-                ToolRequestMessage toolRequestMessage = JSONUtil.toBean(chunk, ToolRequestMessage.class);
+                ToolRequestMessage toolRequestMessage = (ToolRequestMessage) streamMessage;
                 String toolId = toolRequestMessage.getId();
                 String toolName = toolRequestMessage.getName();
                 // 检查是否是第一次看到这个工具 ID
@@ -102,16 +125,20 @@ public class JsonMessageStreamHandler {
                 }
             }
             case TOOL_EXECUTED -> {
-                ToolExecutedMessage toolExecutedMessage = JSONUtil.toBean(chunk, ToolExecutedMessage.class);
+                ToolExecutedMessage toolExecutedMessage = (ToolExecutedMessage) streamMessage;
                 JSONObject jsonObject = JSONUtil.parseObj(toolExecutedMessage.getArguments());
                 String toolName = toolExecutedMessage.getName();
                 BaseTool tool = toolManager.getTool(toolName);
                 String result = tool.generateToolExecutedResult(jsonObject);
                 // 输出前端和要持久化的内容
                 String output = String.format("\n\n%s\n\n", result);
-                chatHistoryStringBuilder.append(output);
+                responseBuffer.append(output);
                 return output;
             }
+            case TOKEN_USAGE -> {
+                // 只用于记录，不输出给前端
+                return "";
+            }
             default -> {
                 log.error("不支持的消息类型: {}", typeEnum);
                 return "";
@@ -1,11 +1,18 @@
 package com.pd.pdaicodemother.core.handler;
 
+import com.pd.pdaicodemother.ai.model.AiConstant;
+import com.pd.pdaicodemother.ai.model.message.AiResponseMessage;
+import com.pd.pdaicodemother.ai.model.message.StreamMessage;
+import com.pd.pdaicodemother.ai.model.message.TokenUsageMessage;
+import com.pd.pdaicodemother.core.buffer.ResponseBuffer;
 import com.pd.pdaicodemother.model.entity.User;
 import com.pd.pdaicodemother.model.enums.MessageTypeEnum;
 import com.pd.pdaicodemother.service.ChatHistoryService;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Flux;
 
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * 简单文本流处理器
  * 处理 HTML 和 MULTI_FILE 类型的流式响应
@@ -15,33 +22,44 @@ public class SimpleTextStreamHandler {
 
     /**
      * 处理传统流（HTML, MULTI_FILE）
-     * 直接收集完整的文本响应
+     * 完整的文本响应已由外观类写入响应缓冲区，这里不再另存一份
      *
      * @param originFlux         原始流
      * @param chatHistoryService 聊天历史服务
      * @param appId              应用ID
      * @param loginUser          登录用户
+     * @param responseBuffer     响应缓冲区（处理完成后释放）
      * @return 处理后的流
      */
-    public Flux<String> handle(Flux<String> originFlux,
+    public Flux<String> handle(Flux<StreamMessage> originFlux,
                                ChatHistoryService chatHistoryService,
-                               long appId, User loginUser) {
-        StringBuilder aiResponseBuilder = new StringBuilder();
+                               long appId, User loginUser, ResponseBuffer responseBuffer) {
+        // 截至目前的累计 Token 用量，随 AI 消息一起保存（中断和失败时为已完成轮次的用量）
+        AtomicReference<TokenUsageMessage> tokenUsage = new AtomicReference<>();
         return originFlux
-                .map(chunk -> {
-                    // 收集AI响应内容
-                    aiResponseBuilder.append(chunk);
-                    return chunk;
+                .doOnNext(streamMessage -> {
+                    if (streamMessage instanceof TokenUsageMessage tokenUsageMessage) {
+                        tokenUsage.set(tokenUsageMessage);
+                    }
                 })
+                .ofType(AiResponseMessage.class)
+                .map(AiResponseMessage::getData)
                 .doOnComplete(() -> {
                     // 流式响应完成后，添加AI消息到对话历史
-                    String aiResponse = aiResponseBuilder.toString();
-                    chatHistoryService.addChatMessage(appId, aiResponse, MessageTypeEnum.AI.getValue(), loginUser.getId());
+                    chatHistoryService.addChatMessage(appId, responseBuffer, MessageTypeEnum.AI.getValue(), loginUser.getId(),
+                            tokenUsage.get());
+                })
+                .doOnCancel(() -> {
+                    // 客户端断开，保存已生成的部分并标记为中断
+                    chatHistoryService.addChatMessage(appId, responseBuffer + AiConstant.GENERATION_INTERRUPTED_MARK,
+                            MessageTypeEnum.AI.getValue(), loginUser.getId(), tokenUsage.get());
                 })
                 .doOnError(error -> {
                     // 如果AI回复失败，也要记录错误消息
                     String errorMessage = "AI回复失败: " + error.getMessage();
-                    chatHistoryService.addChatMessage(appId, errorMessage, MessageTypeEnum.AI.getValue(), loginUser.getId());
-                });
+                    chatHistoryService.addChatMessage(appId, errorMessage, MessageTypeEnum.AI.getValue(), loginUser.getId(),
+                            tokenUsage.get());
+                })
+                .doFinally(signalType -> responseBuffer.release());
     }
 }
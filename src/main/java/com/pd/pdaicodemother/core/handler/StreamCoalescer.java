@@ -0,0 +1,152 @@
+package com.pd.pdaicodemother.core.handler;
+
+import com.pd.pdaicodemother.ai.model.message.AiResponseMessage;
+import com.pd.pdaicodemother.ai.model.message.StreamMessage;
+import com.pd.pdaicodemother.config.StreamCoalesceConfig;
+import jakarta.annotation.Resource;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 流式响应合并器
+ * 将相邻的 AI 响应片段按大小或时间窗口合并后再下发，减少 SSE 事件数量；
+ * 工具消息、流结束或出错时立即输出已累积的内容，保证顺序不变
+ */
+@Component
+public class StreamCoalescer {
+
+    @Resource
+    private StreamCoalesceConfig streamCoalesceConfig;
+
+    /**
+     * 合并消息流
+     *
+     * @param originFlux 原始流
+     * @return 合并后的流
+     */
+    public Flux<StreamMessage> coalesce(Flux<StreamMessage> originFlux) {
+        if (!streamCoalesceConfig.isEnabled() || streamCoalesceConfig.getMaxBytes() <= 1) {
+            return originFlux;
+        }
+        int maxBytes = streamCoalesceConfig.getMaxBytes();
+        long maxDelayMs = streamCoalesceConfig.getMaxDelayMs();
+        return Flux.create(sink -> {
+            CoalescingBuffer buffer = new CoalescingBuffer(sink, maxBytes, maxDelayMs);
+            Disposable upstream = originFlux.subscribe(buffer::onNext, buffer::onError, buffer::onComplete);
+            sink.onDispose(() -> {
+                upstream.dispose();
+                buffer.cancelTimer();
+            });
+        });
+    }
+
+    /**
+     * 单个流的合并缓冲区，上游线程与定时器线程通过 this 加锁互斥
+     */
+    private static class CoalescingBuffer {
+
+        private final FluxSink<StreamMessage> sink;
+
+        private final int maxBytes;
+
+        private final long maxDelayMs;
+
+        private final StringBuilder pending = new StringBuilder();
+
+        private int pendingBytes;
+
+        private Disposable timer;
+
+        /**
+         * 定时器序号，用于忽略已被取消但仍在执行的旧定时任务
+         */
+        private long timerSeq;
+
+        CoalescingBuffer(FluxSink<StreamMessage> sink, int maxBytes, long maxDelayMs) {
+            this.sink = sink;
+            this.maxBytes = maxBytes;
+            this.maxDelayMs = maxDelayMs;
+        }
+
+        synchronized void onNext(StreamMessage streamMessage) {
+            if (!(streamMessage instanceof AiResponseMessage aiResponseMessage)) {
+                // 工具消息等作为分界，先输出累积的内容
+                flush();
+                sink.next(streamMessage);
+                return;
+            }
+            String data = aiResponseMessage.getData();
+            if (data == null || data.isEmpty()) {
+                return;
+            }
+            pending.append(data);
+            pendingBytes += utf8Length(data);
+            if (pendingBytes >= maxBytes || maxDelayMs <= 0) {
+                flush();
+            } else if (timer == null) {
+                long seq = ++timerSeq;
+                timer = Schedulers.parallel().schedule(() -> flushByTimer(seq), maxDelayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        synchronized void onError(Throwable error) {
+            flush();
+            sink.error(error);
+        }
+
+        synchronized void onComplete() {
+            flush();
+            sink.complete();
+        }
+
+        synchronized void cancelTimer() {
+            if (timer != null) {
+                timer.dispose();
+                timer = null;
+                timerSeq++;
+            }
+        }
+
+        private synchronized void flushByTimer(long seq) {
+            if (seq != timerSeq || timer == null) {
+                return;
+            }
+            timer = null;
+            flush();
+        }
+
+        private void flush() {
+            cancelTimer();
+            if (pending.isEmpty()) {
+                return;
+            }
+            String data = pending.toString();
+            pending.setLength(0);
+            pendingBytes = 0;
+            sink.next(new AiResponseMessage(data));
+        }
+
+        private static int utf8Length(String data) {
+            int length = 0;
+            for (int i = 0; i < data.length(); i++) {
+                char c = data.charAt(i);
+                if (c < 0x80) {
+                    length += 1;
+                } else if (c < 0x800) {
+                    length += 2;
+                } else if (Character.isHighSurrogate(c)) {
+                    // 代理对整体 4 字节，低位代理按 0 计
+                    length += 4;
+                } else if (!Character.isLowSurrogate(c)) {
+                    length += 3;
+                }
+            }
+            return length;
+        }
+    }
+}
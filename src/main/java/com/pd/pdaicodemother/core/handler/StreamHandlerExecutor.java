@@ -1,5 +1,7 @@
 package com.pd.pdaicodemother.core.handler;
 
+import com.pd.pdaicodemother.ai.model.message.StreamMessage;
+import com.pd.pdaicodemother.core.buffer.ResponseBuffer;
 import com.pd.pdaicodemother.model.entity.User;
 import com.pd.pdaicodemother.model.enums.CodeGenTypeEnum;
 import com.pd.pdaicodemother.service.ChatHistoryService;
@@ -11,8 +13,8 @@ import reactor.core.publisher.Flux;
 /**
  * 流处理器执行器
  * 根据代码生成类型创建合适的流处理器：
- * 1. 传统的 Flux<String> 流（HTML、MULTI_FILE） -> SimpleTextStreamHandler
- * 2. TokenStream 格式的复杂流（VUE_PROJECT） -> JsonMessageStreamHandler
+ * 1. 仅包含 AI 响应的简单流（HTML、MULTI_FILE） -> SimpleTextStreamHandler
+ * 2. TokenStream 转换的带工具调用的流（VUE_PROJECT） -> JsonMessageStreamHandler
  */
 @Slf4j
 @Component
@@ -21,6 +23,9 @@ public class StreamHandlerExecutor {
     @Resource
     private JsonMessageStreamHandler jsonMessageStreamHandler;
 
+    @Resource
+    private StreamCoalescer streamCoalescer;
+
     /**
      * 创建流处理器并处理聊天历史记录
      *
@@ -29,16 +34,20 @@ public class StreamHandlerExecutor {
      * @param appId              应用ID
      * @param loginUser          登录用户
      * @param codeGenType        代码生成类型
+     * @param responseBuffer     本次生成的响应缓冲区，由处理器负责释放
      * @return 处理后的流
      */
-    public Flux<String> doExecute(Flux<String> originFlux,
+    public Flux<String> doExecute(Flux<StreamMessage> originFlux,
                                          ChatHistoryService chatHistoryService,
-                                         long appId, User loginUser, CodeGenTypeEnum codeGenType) {
+                                         long appId, User loginUser, CodeGenTypeEnum codeGenType,
+                                         ResponseBuffer responseBuffer) {
+        // 先合并相邻的 AI 响应片段，再交给具体的处理器
+        Flux<StreamMessage> coalescedFlux = streamCoalescer.coalesce(originFlux);
         return switch (codeGenType) {
             case VUE_PROJECT -> // 使用注入的组件实例
-                    jsonMessageStreamHandler.handle(originFlux, chatHistoryService, appId, loginUser);
+                    jsonMessageStreamHandler.handle(coalescedFlux, chatHistoryService, appId, loginUser, responseBuffer);
             case HTML, MULTI_FILE -> // 简单文本处理器不需要依赖注入
-                    new SimpleTextStreamHandler().handle(originFlux, chatHistoryService, appId, loginUser);
+                    new SimpleTextStreamHandler().handle(coalescedFlux, chatHistoryService, appId, loginUser, responseBuffer);
         };
     }
 }
@@ -0,0 +1,41 @@
+package com.pd.pdaicodemother.core.parser;
+
+/**
+ * 代码块事件监听器
+ * 由 {@link CodeFenceScanner} 在识别到 ```lang 代码块时回调
+ */
+public interface CodeFenceListener {
+
+    /**
+     * 代码块开始（已读到 ```lang 和换行）
+     *
+     * @param language 代码块语言（小写）
+     */
+    default void onBlockStart(String language) {
+    }
+
+    /**
+     * 代码块内容片段，可能被多次调用
+     *
+     * @param language 代码块语言（小写）
+     * @param content  本次新增的内容（复用的缓冲区，需要保留时请自行拷贝）
+     */
+    default void onBlockContent(String language, CharSequence content) {
+    }
+
+    /**
+     * 代码块结束（已读到结束的 ```）
+     *
+     * @param language 代码块语言（小写）
+     */
+    default void onBlockEnd(String language) {
+    }
+
+    /**
+     * 流结束时代码块仍未闭合
+     *
+     * @param language 代码块语言（小写）
+     */
+    default void onBlockAbort(String language) {
+    }
+}
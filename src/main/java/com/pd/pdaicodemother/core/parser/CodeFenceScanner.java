@@ -0,0 +1,158 @@
+package com.pd.pdaicodemother.core.parser;
+
+/**
+ * 代码块增量扫描器（状态机）
+ * 逐个接收流式片段，识别 ```lang ... ``` 代码块并回调 {@link CodeFenceListener}，
+ * 只保留极少量的状态，不缓存完整的响应文本
+ */
+public class CodeFenceScanner {
+
+    /**
+     * 语言标识的最大长度，超过则认为不是代码块
+     */
+    private static final int MAX_HEADER_LENGTH = 32;
+
+    private enum State {
+        /**
+         * 代码块之外的普通文本
+         */
+        TEXT,
+        /**
+         * 已读到 ```，正在读取语言标识
+         */
+        HEADER,
+        /**
+         * 代码块内部
+         */
+        CODE
+    }
+
+    private final CodeFenceListener listener;
+
+    private final StringBuilder header = new StringBuilder();
+
+    /**
+     * 单次 feed 内累积的代码内容，结束时统一回调
+     */
+    private final StringBuilder pendingContent = new StringBuilder();
+
+    private State state = State.TEXT;
+
+    /**
+     * 连续反引号数量（可能跨越多个片段）
+     */
+    private int backticks;
+
+    /**
+     * 当前这串反引号是行内代码的结尾，不能作为代码块开头
+     */
+    private boolean inlineClosing;
+
+    private String language;
+
+    public CodeFenceScanner(CodeFenceListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * 输入一个流式片段
+     *
+     * @param chunk 片段
+     */
+    public void feed(CharSequence chunk) {
+        if (chunk == null || chunk.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < chunk.length(); i++) {
+            char c = chunk.charAt(i);
+            switch (state) {
+                case TEXT -> scanText(c);
+                case HEADER -> scanHeader(c);
+                case CODE -> scanCode(c);
+            }
+        }
+        flushContent();
+    }
+
+    /**
+     * 流结束，未闭合的代码块会回调 onBlockAbort
+     */
+    public void finish() {
+        if (state == State.CODE) {
+            flushContent();
+            listener.onBlockAbort(language);
+        }
+        state = State.TEXT;
+        backticks = 0;
+        inlineClosing = false;
+        language = null;
+        header.setLength(0);
+    }
+
+    private void scanText(char c) {
+        if (c == '`') {
+            backticks++;
+            return;
+        }
+        if (backticks >= 3 && !inlineClosing) {
+            backticks = 0;
+            header.setLength(0);
+            state = State.HEADER;
+            scanHeader(c);
+            return;
+        }
+        backticks = 0;
+        inlineClosing = false;
+    }
+
+    private void scanHeader(char c) {
+        if (c == '\n') {
+            language = header.toString().trim().toLowerCase();
+            header.setLength(0);
+            backticks = 0;
+            state = State.CODE;
+            listener.onBlockStart(language);
+            return;
+        }
+        if (c == '`') {
+            // 行内的 ```xxx``` 不是代码块
+            state = State.TEXT;
+            backticks = 1;
+            inlineClosing = true;
+            return;
+        }
+        if (header.length() >= MAX_HEADER_LENGTH) {
+            state = State.TEXT;
+            backticks = 0;
+            return;
+        }
+        header.append(c);
+    }
+
+    private void scanCode(char c) {
+        if (c == '`') {
+            backticks++;
+            if (backticks == 3) {
+                flushContent();
+                String closedLanguage = language;
+                backticks = 0;
+                language = null;
+                state = State.TEXT;
+                listener.onBlockEnd(closedLanguage);
+            }
+            return;
+        }
+        // 不足三个的反引号属于代码内容
+        for (; backticks > 0; backticks--) {
+            pendingContent.append('`');
+        }
+        pendingContent.append(c);
+    }
+
+    private void flushContent() {
+        if (state == State.CODE && !pendingContent.isEmpty()) {
+            listener.onBlockContent(language, pendingContent);
+        }
+        pendingContent.setLength(0);
+    }
+}
@@ -1,10 +1,13 @@
 package com.pd.pdaicodemother.core.parser;
 
 import com.pd.pdaicodemother.core.parser.impl.HtmlCodeParser;
+import com.pd.pdaicodemother.core.parser.impl.HtmlStreamingCodeParser;
 import com.pd.pdaicodemother.core.parser.impl.MultiFileCodeParser;
+import com.pd.pdaicodemother.core.parser.impl.MultiFileStreamingCodeParser;
 import com.pd.pdaicodemother.exception.BusinessException;
 import com.pd.pdaicodemother.exception.ErrorCode;
 import com.pd.pdaicodemother.model.enums.CodeGenTypeEnum;
+import com.pd.pdaicodemother.monitor.GenerationMetrics;
 
 public class CodeParserExecutor {
 
@@ -13,12 +16,28 @@ public class CodeParserExecutor {
     private static final MultiFileCodeParser multiFileCodeParser = new MultiFileCodeParser();
 
     public static Object executeParser(String codeContent, CodeGenTypeEnum codeGenTypeEnum) {
-        return switch (codeGenTypeEnum) {
+        return GenerationMetrics.recordParse(codeGenTypeEnum, "batch", () -> switch (codeGenTypeEnum) {
             case HTML -> htmlCodeParser.parseCode(codeContent);
             case MULTI_FILE -> multiFileCodeParser.parseCode(codeContent);
             default -> {
                 throw new BusinessException(ErrorCode.SYSTEM_ERROR, "不支持的代码生成类型");
             }
+        });
+    }
+
+    /**
+     * 创建流式解析器（有状态，每次生成新建一个）
+     *
+     * @param codeGenTypeEnum 代码生成类型
+     * @return 流式解析器
+     */
+    public static StreamingCodeParser<?> createStreamingParser(CodeGenTypeEnum codeGenTypeEnum) {
+        return switch (codeGenTypeEnum) {
+            case HTML -> new HtmlStreamingCodeParser();
+            case MULTI_FILE -> new MultiFileStreamingCodeParser();
+            default -> {
+                throw new BusinessException(ErrorCode.SYSTEM_ERROR, "不支持的代码生成类型");
+            }
         };
     }
 }
@@ -0,0 +1,132 @@
+package com.pd.pdaicodemother.core.parser;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * 流式代码解析器模板
+ * 随 AI 输出逐片解析，代码块一闭合即产出结果，无需在流结束后对完整文本再跑正则
+ *
+ * @param <T> 解析结果类型
+ */
+public abstract class StreamingCodeParser<T> implements CodeFenceListener {
+
+    private final CodeFenceScanner scanner = new CodeFenceScanner(this);
+
+    /**
+     * 正在收集的代码块内容（语言 -> 内容）
+     */
+    private final Map<String, StringBuilder> openBlocks = new HashMap<>();
+
+    /**
+     * 代码块完成回调
+     */
+    private BiConsumer<String, String> blockCompleteHandler;
+
+    /**
+     * 设置代码块完成时的回调（语言, 代码）
+     *
+     * @param blockCompleteHandler 回调
+     * @return 当前解析器
+     */
+    public StreamingCodeParser<T> onBlockComplete(BiConsumer<String, String> blockCompleteHandler) {
+        this.blockCompleteHandler = blockCompleteHandler;
+        return this;
+    }
+
+    /**
+     * 输入一个流式片段
+     *
+     * @param chunk 片段
+     */
+    public void feed(String chunk) {
+        scanner.feed(chunk);
+    }
+
+    /**
+     * 流结束，返回解析结果
+     *
+     * @return 解析结果
+     */
+    public T finish() {
+        scanner.finish();
+        return buildResult();
+    }
+
+    /**
+     * 当前已解析出的结果
+     *
+     * @return 解析结果
+     */
+    public T getResult() {
+        return buildResult();
+    }
+
+    /**
+     * 所需的代码块是否都已收集完毕（此后的输出不会再改变结果）
+     *
+     * @return 是否完整
+     */
+    public abstract boolean isComplete();
+
+    @Override
+    public void onBlockStart(String language) {
+        if (acceptLanguage(language)) {
+            openBlocks.put(language, new StringBuilder());
+        }
+    }
+
+    @Override
+    public void onBlockContent(String language, CharSequence content) {
+        StringBuilder builder = openBlocks.get(language);
+        if (builder != null) {
+            builder.append(content);
+        }
+    }
+
+    @Override
+    public void onBlockEnd(String language) {
+        StringBuilder builder = openBlocks.remove(language);
+        if (builder == null) {
+            return;
+        }
+        String code = builder.toString().trim();
+        if (code.isEmpty()) {
+            return;
+        }
+        onCodeBlock(language, code);
+        if (blockCompleteHandler != null) {
+            blockCompleteHandler.accept(language, code);
+        }
+    }
+
+    @Override
+    public void onBlockAbort(String language) {
+        StringBuilder builder = openBlocks.remove(language);
+        if (builder != null) {
+            onUnclosedCodeBlock(language, builder.toString().trim());
+        }
+    }
+
+    /**
+     * 是否需要收集该语言的代码块
+     */
+    protected abstract boolean acceptLanguage(String language);
+
+    /**
+     * 处理一个完整的代码块（已去除首尾空白）
+     */
+    protected abstract void onCodeBlock(String language, String code);
+
+    /**
+     * 处理流结束时仍未闭合的代码块（通常是输出被截断），默认丢弃
+     */
+    protected void onUnclosedCodeBlock(String language, String partialCode) {
+    }
+
+    /**
+     * 构建解析结果
+     */
+    protected abstract T buildResult();
+}
@@ -0,0 +1,71 @@
+package com.pd.pdaicodemother.core.parser.impl;
+
+import com.pd.pdaicodemother.ai.model.HtmlCodeResult;
+import com.pd.pdaicodemother.core.parser.StreamingCodeParser;
+
+/**
+ * HTML 单文件流式解析器
+ * 与 {@link HtmlCodeParser} 语义一致：取第一个 ```html 代码块，找不到时将整个内容作为 HTML
+ */
+public class HtmlStreamingCodeParser extends StreamingCodeParser<HtmlCodeResult> {
+
+    private static final String HTML = "html";
+
+    /**
+     * 代码块出现之前的原始内容，仅用于没有代码块时兜底
+     */
+    private StringBuilder rawContent = new StringBuilder();
+
+    private String htmlCode;
+
+    @Override
+    public void feed(String chunk) {
+        if (rawContent != null && chunk != null) {
+            rawContent.append(chunk);
+        }
+        super.feed(chunk);
+    }
+
+    @Override
+    public void onBlockStart(String language) {
+        if (HTML.equals(language)) {
+            // 已出现 HTML 代码块，不再需要兜底内容
+            rawContent = null;
+        }
+        super.onBlockStart(language);
+    }
+
+    @Override
+    public boolean isComplete() {
+        return htmlCode != null;
+    }
+
+    @Override
+    protected boolean acceptLanguage(String language) {
+        return HTML.equals(language) && htmlCode == null;
+    }
+
+    @Override
+    protected void onCodeBlock(String language, String code) {
+        htmlCode = code;
+    }
+
+    @Override
+    protected void onUnclosedCodeBlock(String language, String partialCode) {
+        if (htmlCode == null && !partialCode.isEmpty()) {
+            htmlCode = partialCode;
+        }
+    }
+
+    @Override
+    protected HtmlCodeResult buildResult() {
+        HtmlCodeResult result = new HtmlCodeResult();
+        if (htmlCode != null) {
+            result.setHtmlCode(htmlCode);
+        } else if (rawContent != null) {
+            // 如果没有找到代码块，将整个内容作为HTML
+            result.setHtmlCode(rawContent.toString().trim());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,44 @@
+package com.pd.pdaicodemother.core.parser.impl;
+
+import com.pd.pdaicodemother.ai.model.MultiFileCodeResult;
+import com.pd.pdaicodemother.core.parser.StreamingCodeParser;
+
+/**
+ * 多文件流式解析器
+ * 与 {@link MultiFileCodeParser} 语义一致：分别取第一个 html / css / js 代码块
+ */
+public class MultiFileStreamingCodeParser extends StreamingCodeParser<MultiFileCodeResult> {
+
+    private final MultiFileCodeResult result = new MultiFileCodeResult();
+
+    @Override
+    public boolean isComplete() {
+        return result.getHtmlCode() != null && result.getCssCode() != null && result.getJsCode() != null;
+    }
+
+    @Override
+    protected boolean acceptLanguage(String language) {
+        return switch (language) {
+            case "html" -> result.getHtmlCode() == null;
+            case "css" -> result.getCssCode() == null;
+            case "js", "javascript" -> result.getJsCode() == null;
+            default -> false;
+        };
+    }
+
+    @Override
+    protected void onCodeBlock(String language, String code) {
+        switch (language) {
+            case "html" -> result.setHtmlCode(code);
+            case "css" -> result.setCssCode(code);
+            case "js", "javascript" -> result.setJsCode(code);
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    protected MultiFileCodeResult buildResult() {
+        return result;
+    }
+}
@@ -5,6 +5,7 @@ import com.pd.pdaicodemother.ai.model.MultiFileCodeResult;
 import com.pd.pdaicodemother.core.saver.template.HtmlCodeSaver;
 import com.pd.pdaicodemother.core.saver.template.MultiFileCodeSaver;
 import com.pd.pdaicodemother.model.enums.CodeGenTypeEnum;
+import com.pd.pdaicodemother.monitor.GenerationMetrics;
 
 import java.io.File;
 
@@ -14,10 +15,21 @@ public class CodeFileSaverExecutor {
     private static final MultiFileCodeSaver MULTI_FILE_CODE_SAVER = new MultiFileCodeSaver();
 
     public static File saveCode(Object result, CodeGenTypeEnum codeGenTypeEnum, Long appId) {
-        return switch (codeGenTypeEnum) {
+        return GenerationMetrics.recordSave(codeGenTypeEnum, "batch", () -> switch (codeGenTypeEnum) {
             case HTML -> HTML_CODE_SAVER.saveCode((HtmlCodeResult) result, appId);
             case MULTI_FILE -> MULTI_FILE_CODE_SAVER.saveCode((MultiFileCodeResult) result, appId);
             default -> throw new RuntimeException("不支持的代码生成类型" + codeGenTypeEnum);
+        });
+    }
+
+    /**
+     * 创建流式保存器，代码块边生成边写入文件
+     */
+    public static StreamingCodeFileSaver createStreamingSaver(CodeGenTypeEnum codeGenTypeEnum, Long appId) {
+        return switch (codeGenTypeEnum) {
+            case HTML -> HTML_CODE_SAVER.createStreamingSaver(appId);
+            case MULTI_FILE -> MULTI_FILE_CODE_SAVER.createStreamingSaver(appId);
+            default -> throw new RuntimeException("不支持的代码生成类型" + codeGenTypeEnum);
         };
     }
 }
@@ -9,6 +9,7 @@ import com.pd.pdaicodemother.model.enums.CodeGenTypeEnum;
 
 import java.io.File;
 import java.nio.charset.StandardCharsets;
+import java.util.Set;
 
 public abstract class CodeFileSaverTemplate<T> {
 
@@ -32,6 +33,17 @@ public abstract class CodeFileSaverTemplate<T> {
         return new File(baseDirPath);
     }
 
+    /**
+     * 流式保存：创建边生成边写文件的保存器（每次生成创建一个）
+     *
+     * @param appId 应用 ID
+     * @return 流式保存器
+     */
+    public final StreamingCodeFileSaver createStreamingSaver(Long appId) {
+        String baseDirPath = buildUniqueDir(appId);
+        return new StreamingCodeFileSaver(baseDirPath, this::resolveFileName, getFallbackFileName(), this::validSavedFiles);
+    }
+
     protected void validInput(T result) {
         if (result == null) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "代码结果对象不能为空");
@@ -70,5 +82,30 @@ public abstract class CodeFileSaverTemplate<T> {
      */
     protected abstract void saveFiles(T result, String baseDirPath);
 
+    /**
+     * 流式保存时，代码块语言对应的文件名
+     *
+     * @param language 代码块语言（小写）
+     * @return 文件名，不需要保存时返回 null
+     */
+    protected abstract String resolveFileName(String language);
+
+    /**
+     * 流式保存时没有任何代码块，原始内容写入的文件，默认不兜底
+     */
+    protected String getFallbackFileName() {
+        return null;
+    }
+
+    /**
+     * 流式保存完成后的校验
+     *
+     * @param savedFileNames 已保存的文件名
+     */
+    protected void validSavedFiles(Set<String> savedFileNames) {
+        if (savedFileNames.isEmpty()) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "代码结果对象不能为空");
+        }
+    }
 
 }
@@ -0,0 +1,379 @@
+package com.pd.pdaicodemother.core.saver;
+
+import com.pd.pdaicodemother.core.buffer.ResponseBuffer;
+import com.pd.pdaicodemother.core.parser.CodeFenceListener;
+import com.pd.pdaicodemother.core.parser.CodeFenceScanner;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 流式代码保存器
+ * 代码块内容边生成边通过 FileChannel 写入临时文件，代码块闭合后暂存，流结束且整体校验通过后才统一原子重命名为目标文件，
+ * 中途出错、取消或校验失败时目录保持上一次生成的结果；不在内存中保留完整代码。写入内容与 {@link CodeFileSaverTemplate} 一致（去除首尾空白）
+ */
+@Slf4j
+public class StreamingCodeFileSaver implements CodeFenceListener {
+
+    private static final int BUFFER_SIZE = 8 * 1024;
+
+    private final CodeFenceScanner scanner = new CodeFenceScanner(this);
+
+    private final Path baseDir;
+
+    /**
+     * 语言 -> 文件名，返回 null 表示不保存
+     */
+    private final Function<String, String> fileNameResolver;
+
+    /**
+     * 没有任何代码块时，将原始内容写入该文件（为 null 则不兜底）
+     */
+    private final String fallbackFileName;
+
+    /**
+     * 保存完成后的校验
+     */
+    private final Consumer<Set<String>> savedFilesValidator;
+
+    /**
+     * 正在写入的文件（语言 -> 写入器）
+     */
+    private final Map<String, BlockWriter> openWriters = new HashMap<>();
+
+    /**
+     * 已闭合、等待提交的文件（文件名 -> 写入器）
+     */
+    private final Map<String, BlockWriter> stagedWriters = new LinkedHashMap<>();
+
+    /**
+     * 是否仍可能需要兜底（兜底文件对应的代码块出现后不再需要）
+     */
+    private boolean fallbackPending;
+
+    /**
+     * 共享的原始响应内容，绑定后不再自行保存副本
+     */
+    private ResponseBuffer sharedRawContent;
+
+    /**
+     * 未绑定共享内容时，自行保存的原始内容
+     */
+    private StringBuilder ownRawContent;
+
+    public StreamingCodeFileSaver(String baseDirPath, Function<String, String> fileNameResolver,
+                                  String fallbackFileName, Consumer<Set<String>> savedFilesValidator) {
+        this.baseDir = Path.of(baseDirPath);
+        this.fileNameResolver = fileNameResolver;
+        this.fallbackFileName = fallbackFileName;
+        this.savedFilesValidator = savedFilesValidator;
+        this.fallbackPending = fallbackFileName != null;
+        this.ownRawContent = fallbackPending ? new StringBuilder() : null;
+    }
+
+    /**
+     * 绑定共享的原始响应内容（由调用方负责写入），兜底时直接读取，不再保存副本
+     *
+     * @param responseBuffer 响应缓冲区
+     * @return 当前保存器
+     */
+    public StreamingCodeFileSaver bindRawContent(ResponseBuffer responseBuffer) {
+        if (fallbackPending && responseBuffer != null && sharedRawContent == null) {
+            sharedRawContent = responseBuffer.retain();
+            ownRawContent = null;
+        }
+        return this;
+    }
+
+    /**
+     * 输入一个流式片段
+     *
+     * @param chunk 片段
+     */
+    public void feed(String chunk) {
+        if (ownRawContent != null && chunk != null) {
+            ownRawContent.append(chunk);
+        }
+        scanner.feed(chunk);
+    }
+
+    /**
+     * 流结束，暂存兜底内容，整体校验通过后将所有文件移动到位
+     *
+     * @return 保存目录
+     */
+    public File finish() {
+        scanner.finish();
+        if (stagedWriters.isEmpty() && fallbackPending) {
+            String content = (sharedRawContent != null ? sharedRawContent.toString() : ownRawContent.toString()).trim();
+            if (!content.isEmpty()) {
+                writeFallback(content);
+            }
+        }
+        releaseRawContent();
+        try {
+            savedFilesValidator.accept(Set.copyOf(stagedWriters.keySet()));
+        } catch (RuntimeException e) {
+            // 校验失败不覆盖已有文件
+            discardStaged();
+            throw e;
+        }
+        for (BlockWriter writer : stagedWriters.values()) {
+            try {
+                writer.publish();
+            } catch (IOException e) {
+                log.error("保存文件失败: {}, 错误: {}", writer.fileName, e.getMessage());
+                writer.discard();
+            }
+        }
+        stagedWriters.clear();
+        return baseDir.toFile();
+    }
+
+    /**
+     * 放弃保存，清理未完成和已暂存的临时文件（流出错或被取消时调用），已有文件保持不变
+     */
+    public void abort() {
+        openWriters.values().forEach(BlockWriter::discard);
+        openWriters.clear();
+        discardStaged();
+        releaseRawContent();
+    }
+
+    @Override
+    public void onBlockStart(String language) {
+        String fileName = fileNameResolver.apply(language);
+        if (fileName == null || stagedWriters.containsKey(fileName) || openWriters.containsKey(language)) {
+            return;
+        }
+        if (fileName.equals(fallbackFileName)) {
+            // 已出现目标代码块，不再需要兜底内容
+            releaseRawContent();
+        }
+        try {
+            openWriters.put(language, new BlockWriter(fileName));
+        } catch (IOException e) {
+            log.error("创建临时文件失败: {}, 错误: {}", fileName, e.getMessage());
+        }
+    }
+
+    @Override
+    public void onBlockContent(String language, CharSequence content) {
+        BlockWriter writer = openWriters.get(language);
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.write(content);
+        } catch (IOException e) {
+            log.error("写入文件失败: {}, 错误: {}", writer.fileName, e.getMessage());
+            openWriters.remove(language).discard();
+        }
+    }
+
+    @Override
+    public void onBlockEnd(String language) {
+        stage(openWriters.remove(language));
+    }
+
+    @Override
+    public void onBlockAbort(String language) {
+        BlockWriter writer = openWriters.remove(language);
+        if (writer == null) {
+            return;
+        }
+        // 输出被截断：兜底文件保留已生成的部分，其余丢弃
+        if (writer.fileName.equals(fallbackFileName)) {
+            stage(writer);
+        } else {
+            writer.discard();
+        }
+    }
+
+    private void stage(BlockWriter writer) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            if (writer.close()) {
+                stagedWriters.put(writer.fileName, writer);
+            }
+        } catch (IOException e) {
+            log.error("保存文件失败: {}, 错误: {}", writer.fileName, e.getMessage());
+            writer.discard();
+        }
+    }
+
+    private void discardStaged() {
+        stagedWriters.values().forEach(BlockWriter::discard);
+        stagedWriters.clear();
+    }
+
+    private void releaseRawContent() {
+        fallbackPending = false;
+        ownRawContent = null;
+        if (sharedRawContent != null) {
+            sharedRawContent.release();
+            sharedRawContent = null;
+        }
+    }
+
+    private void writeFallback(String content) {
+        try {
+            BlockWriter writer = new BlockWriter(fallbackFileName);
+            writer.write(content);
+            stage(writer);
+        } catch (IOException e) {
+            log.error("保存文件失败: {}, 错误: {}", fallbackFileName, e.getMessage());
+        }
+    }
+
+    /**
+     * 单个代码块的写入器：去除首尾空白后按 UTF-8 写入临时文件
+     */
+    private class BlockWriter {
+
+        private final String fileName;
+
+        private final Path tempFile;
+
+        private final FileChannel channel;
+
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+        private final ByteBuffer byteBuffer = ByteBuffer.allocate(BUFFER_SIZE);
+
+        /**
+         * 本次待编码的字符
+         */
+        private final StringBuilder chars = new StringBuilder();
+
+        /**
+         * 暂缓写出的空白字符（只有后面还有内容时才写出，相当于 trim 尾部）
+         */
+        private final StringBuilder pendingWhitespace = new StringBuilder();
+
+        private boolean started;
+
+        private long writtenBytes;
+
+        BlockWriter(String fileName) throws IOException {
+            this.fileName = fileName;
+            this.tempFile = Files.createTempFile(baseDir, "." + fileName + ".", ".tmp");
+            this.channel = FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        }
+
+        void write(CharSequence content) throws IOException {
+            for (int i = 0; i < content.length(); i++) {
+                char c = content.charAt(i);
+                // 与 String.trim() 的空白定义保持一致
+                if (c <= ' ') {
+                    if (started) {
+                        pendingWhitespace.append(c);
+                    }
+                    continue;
+                }
+                started = true;
+                if (!pendingWhitespace.isEmpty()) {
+                    chars.append(pendingWhitespace);
+                    pendingWhitespace.setLength(0);
+                }
+                chars.append(c);
+            }
+            encode(false);
+        }
+
+        /**
+         * 将已累积的字符编码写入文件，末尾不完整的代理对留到下次
+         */
+        private void encode(boolean endOfInput) throws IOException {
+            if (chars.isEmpty() && !endOfInput) {
+                return;
+            }
+            int length = chars.length();
+            if (!endOfInput && Character.isHighSurrogate(chars.charAt(length - 1))) {
+                length--;
+            }
+            CharBuffer charBuffer = CharBuffer.wrap(chars, 0, length);
+            while (true) {
+                CoderResult result = encoder.encode(charBuffer, byteBuffer, endOfInput);
+                flushBytes();
+                if (result.isUnderflow()) {
+                    break;
+                }
+                if (result.isError()) {
+                    result.throwException();
+                }
+            }
+            chars.delete(0, length);
+        }
+
+        private void flushBytes() throws IOException {
+            byteBuffer.flip();
+            while (byteBuffer.hasRemaining()) {
+                writtenBytes += channel.write(byteBuffer);
+            }
+            byteBuffer.clear();
+        }
+
+        /**
+         * 写完并关闭临时文件，等待提交
+         *
+         * @return 是否写入了内容（没有内容时删除临时文件）
+         */
+        boolean close() throws IOException {
+            encode(true);
+            encoder.flush(byteBuffer);
+            flushBytes();
+            channel.close();
+            if (writtenBytes == 0) {
+                Files.deleteIfExists(tempFile);
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * 提交：将临时文件原子重命名为目标文件
+         */
+        void publish() throws IOException {
+            Path target = baseDir.resolve(fileName);
+            try {
+                Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tempFile, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            log.info("流式保存文件成功: {}", target);
+        }
+
+        void discard() {
+            try {
+                channel.close();
+                Files.deleteIfExists(tempFile);
+            } catch (IOException e) {
+                log.warn("清理临时文件失败: {}, 错误: {}", tempFile, e.getMessage());
+            }
+        }
+    }
+}
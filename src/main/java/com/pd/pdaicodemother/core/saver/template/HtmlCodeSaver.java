@@ -7,6 +7,8 @@ import com.pd.pdaicodemother.exception.BusinessException;
 import com.pd.pdaicodemother.exception.ErrorCode;
 import com.pd.pdaicodemother.model.enums.CodeGenTypeEnum;
 
+import java.util.Set;
+
 public class HtmlCodeSaver extends CodeFileSaverTemplate<HtmlCodeResult> {
 
 
@@ -28,4 +30,22 @@ public class HtmlCodeSaver extends CodeFileSaverTemplate<HtmlCodeResult> {
     protected void saveFiles(HtmlCodeResult result, String baseDirPath) {
         writeToFile(baseDirPath, "index.html", result.getHtmlCode());
     }
+
+    @Override
+    protected String resolveFileName(String language) {
+        return "html".equals(language) ? "index.html" : null;
+    }
+
+    @Override
+    protected String getFallbackFileName() {
+        // 与 HtmlCodeParser 一致：没有代码块时整段输出即为 HTML
+        return "index.html";
+    }
+
+    @Override
+    protected void validSavedFiles(Set<String> savedFileNames) {
+        if (!savedFileNames.contains("index.html")) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "HTML代码不能为空");
+        }
+    }
 }
@@ -7,6 +7,8 @@ import com.pd.pdaicodemother.exception.BusinessException;
 import com.pd.pdaicodemother.exception.ErrorCode;
 import com.pd.pdaicodemother.model.enums.CodeGenTypeEnum;
 
+import java.util.Set;
+
 public class MultiFileCodeSaver extends CodeFileSaverTemplate<MultiFileCodeResult> {
 
 
@@ -36,4 +38,27 @@ public class MultiFileCodeSaver extends CodeFileSaverTemplate<MultiFileCodeResul
         writeToFile(baseDirPath, "script.js", result.getJsCode());
         writeToFile(baseDirPath, "style.css", result.getCssCode());
     }
+
+    @Override
+    protected String resolveFileName(String language) {
+        return switch (language) {
+            case "html" -> "index.html";
+            case "css" -> "style.css";
+            case "js", "javascript" -> "script.js";
+            default -> null;
+        };
+    }
+
+    @Override
+    protected void validSavedFiles(Set<String> savedFileNames) {
+        if (!savedFileNames.contains("index.html")) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "HTML代码不能为空");
+        }
+        if (!savedFileNames.contains("style.css")) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "CSS代码不能为空");
+        }
+        if (!savedFileNames.contains("script.js")) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "JS代码不能为空");
+        }
+    }
 }
@@ -0,0 +1,258 @@
+package com.pd.pdaicodemother.manager;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.ToIntFunction;
+
+/**
+ * 异步批量写入器
+ * 记录先进入有界队列，由虚拟线程按批交给写入回调；队列满或未启动时在调用线程同步写入，关闭时写完剩余记录。
+ * 写入回调返回成功写入的条数，其余计为失败
+ *
+ * @param <T> 记录类型
+ */
+@Slf4j
+public class BatchingWriter<T> {
+
+    /**
+     * 等待消费时的轮询间隔
+     */
+    private static final long POLL_INTERVAL_MS = 100;
+
+    /**
+     * 写入线程名，同时用于日志
+     */
+    private final String name;
+
+    /**
+     * 记录的名称，用于日志和指标描述（如"对话历史"）
+     */
+    private final String subject;
+
+    private final ToIntFunction<List<T>> batchWriter;
+
+    private BlockingQueue<T> queue;
+
+    private int batchSize;
+
+    private long offerTimeoutMs;
+
+    /**
+     * 批量写入互斥，保证主动刷新和关闭时的兜底写入不与写入线程交叉
+     */
+    private final ReentrantLock writeLock = new ReentrantLock();
+
+    private final AtomicLong enqueuedCount = new AtomicLong();
+
+    private final AtomicLong writtenCount = new AtomicLong();
+
+    private final AtomicLong failedCount = new AtomicLong();
+
+    private final AtomicLong batchCount = new AtomicLong();
+
+    /**
+     * 队列满导致的同步写入次数
+     */
+    private final AtomicLong syncFallbackCount = new AtomicLong();
+
+    private volatile boolean running;
+
+    private Thread worker;
+
+    /**
+     * @param name        写入线程名
+     * @param subject     记录的名称
+     * @param batchWriter 写入一批记录，返回成功写入的条数
+     */
+    public BatchingWriter(String name, String subject, ToIntFunction<List<T>> batchWriter) {
+        this.name = name;
+        this.subject = subject;
+        this.batchWriter = batchWriter;
+    }
+
+    /**
+     * 注册队列和写入统计指标，通过 /actuator/prometheus 暴露；未启动时队列指标为 0
+     *
+     * @param meterRegistry 指标注册表
+     * @param prefix        指标名前缀
+     */
+    public void bindMetrics(MeterRegistry meterRegistry, String prefix) {
+        Gauge.builder(prefix + ".queue", this, BatchingWriter::getQueueSize)
+                .description("待写入的" + subject + "数")
+                .register(meterRegistry);
+        Gauge.builder(prefix + ".remaining.capacity", this, BatchingWriter::getRemainingCapacity)
+                .description(subject + "写入队列剩余容量")
+                .register(meterRegistry);
+        FunctionCounter.builder(prefix + ".enqueued", enqueuedCount, AtomicLong::get)
+                .description("进入写入队列的" + subject + "数")
+                .register(meterRegistry);
+        FunctionCounter.builder(prefix + ".written", writtenCount, AtomicLong::get)
+                .description("已写入数据库的" + subject + "数")
+                .register(meterRegistry);
+        FunctionCounter.builder(prefix + ".failed", failedCount, AtomicLong::get)
+                .description("写入失败的" + subject + "数")
+                .register(meterRegistry);
+        FunctionCounter.builder(prefix + ".batches", batchCount, AtomicLong::get)
+                .description(subject + "批量写入次数")
+                .register(meterRegistry);
+        FunctionCounter.builder(prefix + ".sync.fallback", syncFallbackCount, AtomicLong::get)
+                .description(subject + "队列已满改为同步写入的次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 启动写入线程
+     *
+     * @param queueCapacity  队列容量
+     * @param batchSize      单批最大条数
+     * @param offerTimeoutMs 队列满时最多等待的毫秒数，超时后改为同步写入
+     */
+    public void start(int queueCapacity, int batchSize, long offerTimeoutMs) {
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.batchSize = batchSize;
+        this.offerTimeoutMs = offerTimeoutMs;
+        running = true;
+        worker = Thread.ofVirtual().name(name).start(this::runLoop);
+        log.info("{}异步写入已启动，队列容量: {}", subject, queueCapacity);
+    }
+
+    /**
+     * 停止写入线程，等待其写完队列后再兜底写入剩余记录
+     *
+     * @param timeoutMs 等待写入线程的最长毫秒数
+     */
+    public void shutdown(long timeoutMs) {
+        if (worker == null) {
+            return;
+        }
+        running = false;
+        try {
+            worker.join(timeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // 兜底：写完剩余记录
+        flushQueued();
+        log.info("{}异步写入已停止，累计写入 {} 条，失败 {} 条", subject, writtenCount.get(), failedCount.get());
+    }
+
+    /**
+     * 提交一条记录
+     *
+     * @return 是否成功（异步写入时表示已入队）
+     */
+    public boolean submit(T item) {
+        if (!running) {
+            return writeNow(item);
+        }
+        boolean offered;
+        try {
+            offered = queue.offer(item, offerTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            offered = false;
+        }
+        if (offered) {
+            enqueuedCount.incrementAndGet();
+            return true;
+        }
+        // 队列已满：同步写入，由调用方承担背压
+        syncFallbackCount.incrementAndGet();
+        log.warn("{}写入队列已满，改为同步写入", subject);
+        return writeNow(item);
+    }
+
+    /**
+     * 立即写入队列中已有的记录
+     */
+    public void flushQueued() {
+        if (queue == null) {
+            return;
+        }
+        writeLock.lock();
+        try {
+            List<T> batch = new ArrayList<>();
+            while (queue.drainTo(batch, batchSize) > 0) {
+                writeBatch(batch);
+                batch.clear();
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public int getQueueSize() {
+        return queue == null ? 0 : queue.size();
+    }
+
+    public int getRemainingCapacity() {
+        return queue == null ? 0 : queue.remainingCapacity();
+    }
+
+    public long getWrittenCount() {
+        return writtenCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    private void runLoop() {
+        while (running || !queue.isEmpty()) {
+            T first;
+            try {
+                first = queue.poll(POLL_INTERVAL_MS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            if (first == null) {
+                continue;
+            }
+            List<T> batch = new ArrayList<>(batchSize);
+            batch.add(first);
+            writeLock.lock();
+            try {
+                queue.drainTo(batch, batchSize - 1);
+                writeBatch(batch);
+            } finally {
+                writeLock.unlock();
+            }
+        }
+    }
+
+    private void writeBatch(List<T> batch) {
+        batchCount.incrementAndGet();
+        record(batch.size(), write(batch));
+    }
+
+    private boolean writeNow(T item) {
+        int written = write(List.of(item));
+        record(1, written);
+        return written == 1;
+    }
+
+    private int write(List<T> batch) {
+        try {
+            return batchWriter.applyAsInt(batch);
+        } catch (Exception e) {
+            log.error("{}写入失败，数量: {}, 错误: {}", subject, batch.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    private void record(int size, int written) {
+        writtenCount.addAndGet(written);
+        failedCount.addAndGet(size - written);
+    }
+}
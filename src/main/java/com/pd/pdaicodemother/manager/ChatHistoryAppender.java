@@ -0,0 +1,141 @@
+package com.pd.pdaicodemother.manager;
+
+import cn.hutool.core.util.IdUtil;
+import com.mybatisflex.core.row.Db;
+import com.pd.pdaicodemother.config.ChatHistoryWriterConfig;
+import com.pd.pdaicodemother.mapper.ChatHistoryMapper;
+import com.pd.pdaicodemother.model.entity.ChatHistory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 对话历史异步批量写入器
+ * 消息先进入有界队列，由虚拟线程批量插入数据库，流式响应结束时不再同步等待数据库；
+ * id 和创建时间在入队时确定，保证顺序与同步写入一致
+ */
+@Slf4j
+@Component
+public class ChatHistoryAppender {
+
+    @Resource
+    private ChatHistoryMapper chatHistoryMapper;
+
+    @Resource
+    private ChatHistoryWriterConfig chatHistoryWriterConfig;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final BatchingWriter<ChatHistory> writer = new BatchingWriter<>("chat-history-writer", "对话历史", this::writeBatch);
+
+    /**
+     * 每个应用尚未落库的消息数量
+     */
+    private final Map<Long, Integer> pendingCounts = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        writer.bindMetrics(meterRegistry, "chat.history.appender");
+        if (!chatHistoryWriterConfig.isEnabled()) {
+            return;
+        }
+        writer.start(chatHistoryWriterConfig.getQueueCapacity(), chatHistoryWriterConfig.getBatchSize(),
+                chatHistoryWriterConfig.getOfferTimeoutMs());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown(chatHistoryWriterConfig.getShutdownTimeoutMs());
+    }
+
+    /**
+     * 追加一条对话历史
+     *
+     * @param chatHistory 对话历史
+     * @return 是否成功（异步写入时表示已入队）
+     */
+    public boolean append(ChatHistory chatHistory) {
+        if (chatHistory.getId() == null) {
+            chatHistory.setId(IdUtil.getSnowflakeNextId());
+        }
+        if (chatHistory.getCreateTime() == null) {
+            chatHistory.setCreateTime(LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS));
+        }
+        // 写入（无论入队还是同步）完成后才减回，读取前的 flush 据此等待
+        pendingCounts.merge(chatHistory.getAppId(), 1, Integer::sum);
+        return writer.submit(chatHistory);
+    }
+
+    /**
+     * 等待指定应用已入队的消息落库，读取对话历史前调用
+     *
+     * @param appId 应用 ID
+     */
+    public void flush(Long appId) {
+        if (appId == null || !pendingCounts.containsKey(appId)) {
+            return;
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(chatHistoryWriterConfig.getFlushTimeoutMs());
+        while (pendingCounts.containsKey(appId)) {
+            writer.flushQueued();
+            if (!pendingCounts.containsKey(appId)) {
+                return;
+            }
+            if (System.nanoTime() > deadline) {
+                log.warn("等待对话历史落库超时，appId: {}", appId);
+                return;
+            }
+            // 剩余消息在写入线程手中，稍等片刻
+            LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    /**
+     * 写入一批消息，批量插入失败时逐条重试
+     *
+     * @return 成功写入的条数
+     */
+    private int writeBatch(List<ChatHistory> batch) {
+        try {
+            // 固定列插入使整批共用一条语句，配合 rewriteBatchedStatements 合并为多值 INSERT
+            Db.executeBatch(batch, batch.size(), ChatHistoryMapper.class, ChatHistoryMapper::insertFixedColumns);
+            return batch.size();
+        } catch (Exception e) {
+            log.error("批量写入对话历史失败，改为逐条写入，数量: {}, 错误: {}", batch.size(), e.getMessage());
+            int written = 0;
+            for (ChatHistory chatHistory : batch) {
+                if (insertOne(chatHistory)) {
+                    written++;
+                }
+            }
+            return written;
+        } finally {
+            batch.forEach(chatHistory -> decrementPending(chatHistory.getAppId()));
+        }
+    }
+
+    private boolean insertOne(ChatHistory chatHistory) {
+        try {
+            return chatHistoryMapper.insertFixedColumns(chatHistory) > 0;
+        } catch (Exception e) {
+            log.error("写入对话历史失败，appId: {}, 错误: {}", chatHistory.getAppId(), e.getMessage());
+            return false;
+        }
+    }
+
+    private void decrementPending(Long appId) {
+        pendingCounts.computeIfPresent(appId, (key, count) -> count > 1 ? count - 1 : null);
+    }
+}
@@ -0,0 +1,161 @@
+package com.pd.pdaicodemother.manager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.pd.pdaicodemother.config.ChatHistoryCacheConfig;
+import com.pd.pdaicodemother.mapper.ChatHistoryMapper;
+import com.pd.pdaicodemother.model.entity.ChatHistory;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 对话历史热点缓存
+ * 按 appId 缓存最近 N 条对话（环形窗口，新消息在前），供记忆加载和第一页历史查询直接使用；
+ * 写入消息时同步更新，缓存总量按消息字节数估算淘汰
+ */
+@Slf4j
+@Component
+public class ChatHistoryHotCache {
+
+    /**
+     * 单条记录除消息内容外的估算开销
+     */
+    private static final int ROW_OVERHEAD_BYTES = 128;
+
+    @Resource
+    private ChatHistoryMapper chatHistoryMapper;
+
+    @Resource
+    private ChatHistoryAppender chatHistoryAppender;
+
+    @Resource
+    private ChatHistoryCacheConfig chatHistoryCacheConfig;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private Cache<Long, AppHistoryRing> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+                .maximumWeight(chatHistoryCacheConfig.getMaxWeightBytes())
+                .weigher((Long appId, AppHistoryRing ring) -> ring.weight())
+                .expireAfterAccess(Duration.ofMinutes(chatHistoryCacheConfig.getExpireAfterAccessMinutes()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "chat.history.hot");
+    }
+
+    /**
+     * 获取应用最近的对话（按创建时间、id 降序）
+     *
+     * @param appId 应用 ID
+     * @param count 需要的条数
+     * @return 最多 count 条记录；缓存无法保证完整时返回 null，调用方应查询数据库
+     */
+    public List<ChatHistory> getRecent(Long appId, int count) {
+        if (!chatHistoryCacheConfig.isEnabled() || count > chatHistoryCacheConfig.getRingSize()) {
+            return null;
+        }
+        AppHistoryRing ring = cache.get(appId, this::loadRing);
+        List<ChatHistory> rows = ring.rows();
+        if (rows.size() >= count) {
+            return rows.subList(0, count);
+        }
+        // 缓存中不足 count 条，只有确定已包含全部历史时才能使用
+        return ring.truncated() ? null : rows;
+    }
+
+    /**
+     * 新消息写入后更新缓存（未缓存的应用不处理，下次读取时再加载）
+     *
+     * @param chatHistory 新消息（需已分配 id）
+     */
+    public void append(ChatHistory chatHistory) {
+        if (!chatHistoryCacheConfig.isEnabled() || chatHistory.getAppId() == null) {
+            return;
+        }
+        // 通过 compute 更新，Caffeine 会重新计算权重
+        cache.asMap().computeIfPresent(chatHistory.getAppId(),
+                (appId, ring) -> ring.prepend(chatHistory, chatHistoryCacheConfig.getRingSize()));
+    }
+
+    /**
+     * 移除应用的缓存（删除应用等场景）
+     *
+     * @param appId 应用 ID
+     */
+    public void invalidate(Long appId) {
+        if (cache != null && appId != null) {
+            cache.invalidate(appId);
+        }
+    }
+
+    private AppHistoryRing loadRing(Long appId) {
+        // 先让尚未落库的消息写入，再从数据库加载
+        chatHistoryAppender.flush(appId);
+        int ringSize = chatHistoryCacheConfig.getRingSize();
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .eq(ChatHistory::getAppId, appId)
+                .orderBy(ChatHistory::getCreateTime, false)
+                .orderBy(ChatHistory::getId, false)
+                .limit(ringSize);
+        List<ChatHistory> rows = chatHistoryMapper.selectListByQuery(queryWrapper);
+        // 查满 ringSize 条说明可能还有更早的记录
+        return AppHistoryRing.of(rows, rows.size() >= ringSize);
+    }
+
+    /**
+     * 单个应用的最近对话（不可变，更新时整体替换）
+     *
+     * @param rows      最近的记录，新消息在前
+     * @param truncated 是否还有更早的记录不在缓存中
+     * @param weight    估算字节数
+     */
+    private record AppHistoryRing(List<ChatHistory> rows, boolean truncated, int weight) {
+
+        static AppHistoryRing of(List<ChatHistory> rows, boolean truncated) {
+            long weight = 0;
+            for (ChatHistory row : rows) {
+                weight += weigh(row);
+            }
+            return new AppHistoryRing(Collections.unmodifiableList(rows), truncated, (int) Math.min(weight, Integer.MAX_VALUE));
+        }
+
+        AppHistoryRing prepend(ChatHistory chatHistory, int ringSize) {
+            for (ChatHistory row : rows) {
+                if (row.getId() != null && row.getId().equals(chatHistory.getId())) {
+                    // 加载时已包含该记录
+                    return this;
+                }
+            }
+            List<ChatHistory> newRows = new ArrayList<>(Math.min(rows.size() + 1, ringSize));
+            newRows.add(chatHistory);
+            boolean newTruncated = truncated;
+            for (ChatHistory row : rows) {
+                if (newRows.size() >= ringSize) {
+                    newTruncated = true;
+                    break;
+                }
+                newRows.add(row);
+            }
+            return of(newRows, newTruncated);
+        }
+
+        private static long weigh(ChatHistory row) {
+            String message = row.getMessage();
+            return ROW_OVERHEAD_BYTES + (message == null ? 0 : 2L * message.length());
+        }
+    }
+}
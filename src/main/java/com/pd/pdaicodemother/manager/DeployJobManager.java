@@ -0,0 +1,155 @@
+package com.pd.pdaicodemother.manager;
+
+import cn.hutool.core.util.IdUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.pd.pdaicodemother.config.DeployJobConfig;
+import com.pd.pdaicodemother.exception.BusinessException;
+import com.pd.pdaicodemother.exception.ErrorCode;
+import com.pd.pdaicodemother.exception.ThrowUtils;
+import com.pd.pdaicodemother.model.enums.DeployJobStatusEnum;
+import com.pd.pdaicodemother.model.vo.DeployJobVO;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 异步部署任务管理
+ * 部署在虚拟线程中执行，提交后立即返回任务 id，前端轮询任务状态，不再占用 HTTP 工作线程等待构建；
+ * 同一应用进行中的部署只执行一次，重复提交返回同一个任务
+ */
+@Slf4j
+@Component
+public class DeployJobManager {
+
+    @Resource
+    private DeployJobConfig deployJobConfig;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 进行中和最近结束的任务，key 为任务 id
+     */
+    private Cache<String, DeployJob> jobs;
+
+    /**
+     * 每个应用进行中的任务
+     */
+    private final Map<Long, DeployJob> activeJobs = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        jobs = Caffeine.newBuilder()
+                .maximumSize(deployJobConfig.getMaxJobs())
+                .expireAfterWrite(Duration.ofMinutes(deployJobConfig.getRetainMinutes()))
+                .build();
+        Gauge.builder("deploy.job.active", activeJobs, Map::size)
+                .description("进行中的部署任务数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 提交部署任务，应用已有进行中的部署时直接返回该任务
+     *
+     * @param appId        应用 ID
+     * @param userId       提交用户 ID
+     * @param deployAction 部署操作，参数为状态回调，返回部署地址
+     * @return 部署任务
+     */
+    public DeployJobVO submit(Long appId, Long userId, Function<Consumer<DeployJobStatusEnum>, String> deployAction) {
+        DeployJob job = activeJobs.computeIfAbsent(appId, key -> {
+            DeployJob created = new DeployJob(IdUtil.getSnowflakeNextIdStr(), appId, userId);
+            jobs.put(created.jobId, created);
+            Thread.ofVirtual().name("deploy-job-" + created.jobId).start(() -> run(created, deployAction));
+            log.info("提交部署任务 {}，appId: {}", created.jobId, appId);
+            return created;
+        });
+        return job.toVO();
+    }
+
+    /**
+     * 查询部署任务，仅提交人可以查询
+     *
+     * @param jobId  任务 id
+     * @param userId 当前用户 ID
+     * @return 部署任务
+     */
+    public DeployJobVO getJob(String jobId, Long userId) {
+        DeployJob job = jobs.getIfPresent(jobId);
+        ThrowUtils.throwIf(job == null, ErrorCode.NOT_FOUND_ERROR, "部署任务不存在或已过期");
+        ThrowUtils.throwIf(!job.userId.equals(userId), ErrorCode.NO_AUTH_ERROR);
+        return job.toVO();
+    }
+
+    private void run(DeployJob job, Function<Consumer<DeployJobStatusEnum>, String> deployAction) {
+        try {
+            job.deployUrl = deployAction.apply(status -> job.status = status);
+            job.status = DeployJobStatusEnum.SUCCEED;
+            log.info("部署任务 {} 完成，appId: {}", job.jobId, job.appId);
+        } catch (BusinessException e) {
+            job.errorMessage = e.getMessage();
+            job.status = DeployJobStatusEnum.FAILED;
+            log.warn("部署任务 {} 失败，appId: {}，原因: {}", job.jobId, job.appId, e.getMessage());
+        } catch (Exception e) {
+            job.errorMessage = "部署失败";
+            job.status = DeployJobStatusEnum.FAILED;
+            log.error("部署任务 {} 异常，appId: {}", job.jobId, job.appId, e);
+        } finally {
+            job.finishTime = LocalDateTime.now();
+            activeJobs.remove(job.appId, job);
+        }
+    }
+
+    /**
+     * 部署任务状态
+     */
+    private static final class DeployJob {
+
+        private final String jobId;
+
+        private final Long appId;
+
+        private final Long userId;
+
+        private final LocalDateTime createTime = LocalDateTime.now();
+
+        private volatile DeployJobStatusEnum status = DeployJobStatusEnum.WAITING;
+
+        private volatile String deployUrl;
+
+        private volatile String errorMessage;
+
+        private volatile LocalDateTime finishTime;
+
+        DeployJob(String jobId, Long appId, Long userId) {
+            this.jobId = jobId;
+            this.appId = appId;
+            this.userId = userId;
+        }
+
+        DeployJobVO toVO() {
+            DeployJobStatusEnum currentStatus = status;
+            DeployJobVO deployJobVO = new DeployJobVO();
+            deployJobVO.setJobId(jobId);
+            deployJobVO.setAppId(appId);
+            deployJobVO.setStatus(currentStatus.getValue());
+            deployJobVO.setStatusText(currentStatus.getText());
+            deployJobVO.setDeployUrl(deployUrl);
+            deployJobVO.setErrorMessage(errorMessage);
+            deployJobVO.setCreateTime(createTime);
+            deployJobVO.setFinishTime(finishTime);
+            return deployJobVO;
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package com.pd.pdaicodemother.manager;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.core.util.IdUtil;
+import cn.hutool.crypto.digest.DigestUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.pd.pdaicodemother.ai.constant.AppConstant;
+import com.pd.pdaicodemother.config.DeployVersionConfig;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * 版本化部署目录管理
+ * 每次部署在部署目录之外的版本目录中写入 {deployKey}/{版本号} 的新目录，内容未变化的文件从上一版本硬链接，只复制变化的文件；
+ * 写完后将部署目录下的 {deployKey} 符号链接（绝对路径）原子地切换到新版本，访问者不会看到写了一半的站点，
+ * 也访问不到旧版本和清单；保留最近几个版本用于回滚
+ */
+@Slf4j
+@Component
+public class DeployVersionManager {
+
+    /**
+     * 早期版本目录的根目录名，位于部署根目录下会被公开访问，切换到新版本目录后删除
+     */
+    private static final String LEGACY_VERSIONS_DIR = ".versions";
+
+    /**
+     * 版本文件清单（相对路径到内容哈希）的后缀，与版本目录同级
+     */
+    private static final String MANIFEST_SUFFIX = ".manifest";
+
+    @Resource
+    private DeployVersionConfig deployVersionConfig;
+
+    /**
+     * 同一部署的发布互斥（发布运行在虚拟线程中，不使用 synchronized）
+     */
+    private final Map<String, ReentrantLock> deployLocks = new ConcurrentHashMap<>();
+
+    /**
+     * 发布新版本并切换
+     *
+     * @param sourceDir 待部署的文件目录
+     * @param deployKey 部署标识
+     * @throws IOException 写入或切换失败
+     */
+    public void publish(File sourceDir, String deployKey) throws IOException {
+        Path deployRoot = Paths.get(AppConstant.CODE_DEPLOY_ROOT_DIR).toAbsolutePath();
+        Path versionsRoot = Paths.get(AppConstant.CODE_DEPLOY_VERSIONS_DIR).toAbsolutePath().resolve(deployKey);
+        Path liveLink = deployRoot.resolve(deployKey);
+        ReentrantLock lock = deployLocks.computeIfAbsent(deployKey, key -> new ReentrantLock());
+        lock.lock();
+        try {
+            Files.createDirectories(versionsRoot);
+            Path previousVersion = Files.isSymbolicLink(liveLink) ? liveLink.resolveSibling(Files.readSymbolicLink(liveLink)) : null;
+            String version = IdUtil.getSnowflakeNextIdStr();
+            Path versionDir = versionsRoot.resolve(version);
+            int linkedCount = writeVersion(sourceDir.toPath(), versionDir, previousVersion);
+            // 先在旁边创建指向新版本的链接，再通过 rename 覆盖正在访问的链接
+            Path tempLink = deployRoot.resolve("." + deployKey + "-" + version);
+            try {
+                Files.createSymbolicLink(tempLink, versionDir);
+            } catch (IOException | UnsupportedOperationException e) {
+                // 不支持符号链接时退回到直接覆盖复制
+                log.warn("创建部署链接失败，改为直接复制: {}", e.getMessage());
+                FileUtil.del(versionDir.toFile());
+                FileUtil.del(manifestPath(versionDir).toFile());
+                FileUtil.copyContent(sourceDir, liveLink.toFile(), true);
+                return;
+            }
+            try {
+                if (Files.isDirectory(liveLink) && !Files.isSymbolicLink(liveLink)) {
+                    // 旧的部署目录迁移为一个历史版本，只在首次版本化部署时发生
+                    Files.move(liveLink, versionsRoot.resolve("0"));
+                }
+                Files.move(tempLink, liveLink, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(tempLink);
+            }
+            log.info("部署 {} 已切换到版本 {}，复用未变化文件 {} 个", deployKey, version, linkedCount);
+            cleanOldVersions(versionsRoot, versionDir);
+            // 早期写在部署目录下的版本已不再被链接（复用的文件是硬链接，不受删除影响）
+            FileUtil.del(deployRoot.resolve(LEGACY_VERSIONS_DIR).resolve(deployKey).toFile());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 写入新版本目录，返回从上一版本硬链接的文件数
+     */
+    private int writeVersion(Path sourceRoot, Path versionDir, Path previousVersion) throws IOException {
+        Map<String, String> previousManifest = previousVersion == null ? Map.of() : readManifest(previousVersion);
+        Map<String, String> manifest = new HashMap<>();
+        int linkedCount = 0;
+        List<Path> files;
+        try (Stream<Path> stream = Files.walk(sourceRoot)) {
+            files = stream.filter(Files::isRegularFile).toList();
+        }
+        for (Path file : files) {
+            String relativePath = sourceRoot.relativize(file).toString().replace(File.separatorChar, '/');
+            String hash = DigestUtil.sha256Hex(file.toFile());
+            manifest.put(relativePath, hash);
+            Path target = versionDir.resolve(relativePath);
+            Files.createDirectories(target.getParent());
+            if (hash.equals(previousManifest.get(relativePath)) && linkFromPrevious(previousVersion.resolve(relativePath), target)) {
+                linkedCount++;
+            } else {
+                Files.copy(file, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        Files.createDirectories(versionDir);
+        FileUtil.writeUtf8String(JSONUtil.toJsonStr(manifest), manifestPath(versionDir).toFile());
+        return linkedCount;
+    }
+
+    /**
+     * 硬链接上一版本中的同一文件（版本目录写入后不再修改，可以安全共享），失败时由调用方复制
+     */
+    private boolean linkFromPrevious(Path previousFile, Path target) {
+        try {
+            Files.createLink(target, previousFile);
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
+    private Map<String, String> readManifest(Path versionDir) {
+        File manifestFile = manifestPath(versionDir).toFile();
+        if (!manifestFile.isFile()) {
+            return Map.of();
+        }
+        Map<String, String> manifest = new HashMap<>();
+        JSONObject jsonObject = JSONUtil.parseObj(FileUtil.readUtf8String(manifestFile));
+        jsonObject.forEach((path, hash) -> manifest.put(path, String.valueOf(hash)));
+        return manifest;
+    }
+
+    private Path manifestPath(Path versionDir) {
+        return versionDir.resolveSibling(versionDir.getFileName() + MANIFEST_SUFFIX);
+    }
+
+    /**
+     * 删除超出保留数量的旧版本（版本号递增，按数值排序），当前版本始终保留
+     */
+    private void cleanOldVersions(Path versionsRoot, Path currentVersion) {
+        List<Path> versions;
+        try (Stream<Path> stream = Files.list(versionsRoot)) {
+            versions = stream.filter(Files::isDirectory)
+                    .sorted(Comparator.comparing((Path path) -> Long.parseLong(path.getFileName().toString())).reversed())
+                    .toList();
+        } catch (IOException | NumberFormatException e) {
+            log.warn("读取部署版本失败: {}", e.getMessage());
+            return;
+        }
+        int keepVersions = Math.max(1, deployVersionConfig.getKeepVersions());
+        for (int i = keepVersions; i < versions.size(); i++) {
+            Path version = versions.get(i);
+            if (version.equals(currentVersion)) {
+                continue;
+            }
+            FileUtil.del(version.toFile());
+            FileUtil.del(manifestPath(version).toFile());
+            log.info("删除旧部署版本: {}", version);
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.pd.pdaicodemother.manager;
+
+import com.pd.pdaicodemother.config.GenerationLeaseConfig;
+import com.pd.pdaicodemother.exception.BusinessException;
+import com.pd.pdaicodemother.exception.ErrorCode;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 应用生成租约管理
+ * 同一应用同一时间只允许一次生成，避免重复调用大模型和并发写入同一代码目录；
+ * 已有生成在进行时按配置排队等待或直接拒绝
+ */
+@Slf4j
+@Component
+public class GenerationLeaseManager {
+
+    @Resource
+    private GenerationLeaseConfig generationLeaseConfig;
+
+    /**
+     * 正在生成或等待中的应用，没有使用方时移除
+     */
+    private final Map<Long, AppLock> locks = new ConcurrentHashMap<>();
+
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    /**
+     * 获取应用的生成租约，使用完后必须调用 {@link GenerationLease#release()}
+     *
+     * @param appId 应用 ID
+     * @return 租约
+     */
+    public GenerationLease acquire(Long appId) {
+        if (!generationLeaseConfig.isEnabled()) {
+            return GenerationLease.NOOP;
+        }
+        AppLock lock = locks.compute(appId, (key, current) -> {
+            AppLock appLock = current == null ? new AppLock() : current;
+            appLock.users++;
+            return appLock;
+        });
+        boolean acquired;
+        try {
+            long waitTimeoutMs = generationLeaseConfig.getWaitTimeoutMs();
+            acquired = waitTimeoutMs <= 0
+                    ? lock.semaphore.tryAcquire()
+                    : lock.semaphore.tryAcquire(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            unref(appId);
+            rejectedCount.incrementAndGet();
+            log.info("应用正在生成中，拒绝新的生成请求，appId: {}", appId);
+            throw new BusinessException(ErrorCode.OPERATION_ERROR, "该应用正在生成中，请稍后再试");
+        }
+        return new GenerationLease(() -> {
+            lock.semaphore.release();
+            unref(appId);
+        });
+    }
+
+    /**
+     * 应用是否正在生成
+     *
+     * @param appId 应用 ID
+     * @return 是否正在生成
+     */
+    public boolean isGenerating(Long appId) {
+        AppLock lock = locks.get(appId);
+        return lock != null && lock.semaphore.availablePermits() == 0;
+    }
+
+    /**
+     * 因应用正在生成而被拒绝的请求数
+     */
+    public long getRejectedCount() {
+        return rejectedCount.get();
+    }
+
+    /**
+     * 正在生成或等待中的应用数
+     */
+    public int getActiveCount() {
+        return locks.size();
+    }
+
+    private void unref(Long appId) {
+        locks.computeIfPresent(appId, (key, current) -> --current.users == 0 ? null : current);
+    }
+
+    /**
+     * 单个应用的锁，users 只在 ConcurrentHashMap 的 compute 中修改
+     */
+    private static class AppLock {
+
+        private final Semaphore semaphore = new Semaphore(1);
+
+        private int users;
+    }
+
+    /**
+     * 生成租约，重复释放无副作用
+     */
+    public static class GenerationLease {
+
+        private static final GenerationLease NOOP = new GenerationLease(() -> {
+        });
+
+        private final Runnable releaseAction;
+
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private GenerationLease(Runnable releaseAction) {
+            this.releaseAction = releaseAction;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) {
+                releaseAction.run();
+            }
+        }
+    }
+}
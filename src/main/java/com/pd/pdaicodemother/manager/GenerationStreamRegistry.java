@@ -0,0 +1,270 @@
+package com.pd.pdaicodemother.manager;
+
+import cn.hutool.core.util.IdUtil;
+import com.pd.pdaicodemother.config.GenerationStreamConfig;
+import com.pd.pdaicodemother.exception.BusinessException;
+import com.pd.pdaicodemother.exception.ErrorCode;
+import com.pd.pdaicodemother.exception.ThrowUtils;
+import com.pd.pdaicodemother.utils.SseEventEncoder;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 可续传的生成流注册表
+ * 每次生成分配一个 id，生成过程独立于客户端连接运行，事件带 id 写入有界的重放缓冲区；
+ * 客户端断线后携带 Last-Event-ID 重连，可重新挂到仍在进行的生成上并补发错过的事件，不必重新生成；
+ * 所有客户端断开超过宽限时间后才取消生成
+ */
+@Slf4j
+@Component
+public class GenerationStreamRegistry {
+
+    /**
+     * 事件 id 中生成 id 与序号的分隔符
+     */
+    private static final char ID_SEPARATOR = '-';
+
+    @Resource
+    private GenerationStreamConfig generationStreamConfig;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 进行中和结束后仍保留的生成，key 为生成 id
+     */
+    private final Map<String, GenerationStream> streams = new ConcurrentHashMap<>();
+
+    private final AtomicLong resumedCount = new AtomicLong();
+
+    @PostConstruct
+    public void bindMetrics() {
+        Gauge.builder("generation.stream.retained", this, GenerationStreamRegistry::getStreamCount)
+                .description("进行中和结束后仍保留的生成数")
+                .register(meterRegistry);
+        FunctionCounter.builder("generation.stream.resumed", this, GenerationStreamRegistry::getResumedCount)
+                .description("客户端断线重连续传的次数")
+                .register(meterRegistry);
+    }
+
+    /**
+     * 启动一次生成：立即订阅内容流，返回供首个客户端订阅的事件流
+     *
+     * @param appId       应用 ID
+     * @param userId      用户 ID
+     * @param contentFlux 生成的内容流
+     * @return 带事件 id 的 SSE 事件流
+     */
+    public Flux<ServerSentEvent<String>> start(Long appId, Long userId, Flux<String> contentFlux) {
+        String generationId = IdUtil.getSnowflakeNextIdStr();
+        GenerationStream stream = new GenerationStream(generationId, appId, userId, generationStreamConfig.getMaxEvents());
+        streams.put(generationId, stream);
+        // 未被订阅前同样按断开处理，避免无人接收时一直生成
+        stream.scheduleDetach();
+        stream.upstream = contentFlux.subscribe(stream::emit, stream::fail, stream::finish);
+        return stream.attach(0);
+    }
+
+    /**
+     * 客户端重连：挂到仍在进行（或刚结束）的生成上，补发 Last-Event-ID 之后的事件
+     *
+     * @param lastEventId 客户端收到的最后一个事件 id
+     * @param appId       应用 ID
+     * @param userId      用户 ID
+     * @return 补发及后续的事件流
+     */
+    public Flux<ServerSentEvent<String>> resume(String lastEventId, Long appId, Long userId) {
+        int separatorIndex = lastEventId.lastIndexOf(ID_SEPARATOR);
+        ThrowUtils.throwIf(separatorIndex <= 0, ErrorCode.PARAMS_ERROR, "Last-Event-ID 格式错误");
+        String generationId = lastEventId.substring(0, separatorIndex);
+        long lastSeq;
+        try {
+            lastSeq = Long.parseLong(lastEventId.substring(separatorIndex + 1));
+        } catch (NumberFormatException e) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "Last-Event-ID 格式错误");
+        }
+        GenerationStream stream = streams.get(generationId);
+        ThrowUtils.throwIf(stream == null, ErrorCode.NOT_FOUND_ERROR, "生成已结束，请刷新查看对话历史");
+        ThrowUtils.throwIf(!stream.appId.equals(appId) || !stream.userId.equals(userId), ErrorCode.NO_AUTH_ERROR);
+        ThrowUtils.throwIf(lastSeq + 1 < stream.oldestRetainedSeq(), ErrorCode.OPERATION_ERROR, "断点数据已过期，请刷新查看对话历史");
+        resumedCount.incrementAndGet();
+        log.info("客户端重连生成 {}，appId: {}，从序号 {} 之后补发", generationId, appId, lastSeq);
+        return stream.attach(lastSeq);
+    }
+
+    /**
+     * 当前保留的生成数量
+     */
+    public int getStreamCount() {
+        return streams.size();
+    }
+
+    /**
+     * 续传次数
+     */
+    public long getResumedCount() {
+        return resumedCount.get();
+    }
+
+    /**
+     * 带序号的事件
+     */
+    private record SequencedEvent(long seq, ServerSentEvent<String> event) {
+    }
+
+    /**
+     * 单次生成的事件流
+     */
+    private final class GenerationStream {
+
+        private final String generationId;
+
+        private final Long appId;
+
+        private final Long userId;
+
+        private final int maxEvents;
+
+        /**
+         * 保留最近 maxEvents 个事件，新订阅者先收到保留的事件再接收后续事件
+         */
+        private final Sinks.Many<SequencedEvent> sink;
+
+        /**
+         * 已发出的事件数（即最新事件的序号），只在上游线程中递增
+         */
+        private final AtomicLong emitted = new AtomicLong();
+
+        private volatile Disposable upstream;
+
+        /**
+         * 以下字段由 this 加锁保护
+         */
+        private int subscribers;
+
+        private Disposable detachTimer;
+
+        private boolean terminated;
+
+        GenerationStream(String generationId, Long appId, Long userId, int maxEvents) {
+            this.generationId = generationId;
+            this.appId = appId;
+            this.userId = userId;
+            this.maxEvents = Math.max(1, maxEvents);
+            this.sink = Sinks.many().replay().limit(this.maxEvents);
+        }
+
+        Flux<ServerSentEvent<String>> attach(long afterSeq) {
+            return Flux.defer(() -> {
+                onSubscribe();
+                return sink.asFlux()
+                        .filter(sequencedEvent -> sequencedEvent.seq() > afterSeq)
+                        .map(SequencedEvent::event)
+                        .doFinally(signalType -> onUnsubscribe());
+            });
+        }
+
+        long oldestRetainedSeq() {
+            return Math.max(1, emitted.get() - maxEvents + 1);
+        }
+
+        void emit(String chunk) {
+            long seq = emitted.incrementAndGet();
+            push(seq, SseEventEncoder.toEvent(chunk, eventId(seq)));
+        }
+
+        void finish() {
+            long seq = emitted.incrementAndGet();
+            push(seq, SseEventEncoder.endEvent(eventId(seq)));
+            sink.emitComplete(Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+            onTerminate();
+        }
+
+        void fail(Throwable error) {
+            log.error("生成 {} 失败，appId: {}", generationId, appId, error);
+            // 以事件告知客户端后正常结束，连接异常断开会让浏览器带着 Last-Event-ID 不断重连
+            String message = error instanceof BusinessException ? error.getMessage() : "生成失败，请重试";
+            long seq = emitted.incrementAndGet();
+            push(seq, SseEventEncoder.errorEvent(message, eventId(seq)));
+            sink.emitComplete(Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+            onTerminate();
+        }
+
+        private void push(long seq, ServerSentEvent<String> event) {
+            sink.emitNext(new SequencedEvent(seq, event), Sinks.EmitFailureHandler.busyLooping(Duration.ofMillis(100)));
+        }
+
+        private String eventId(long seq) {
+            return generationId + ID_SEPARATOR + seq;
+        }
+
+        private synchronized void onSubscribe() {
+            subscribers++;
+            if (detachTimer != null) {
+                detachTimer.dispose();
+                detachTimer = null;
+            }
+        }
+
+        private synchronized void onUnsubscribe() {
+            subscribers--;
+            if (subscribers == 0 && !terminated) {
+                scheduleDetach();
+            }
+        }
+
+        private synchronized void onTerminate() {
+            terminated = true;
+            if (detachTimer != null) {
+                detachTimer.dispose();
+                detachTimer = null;
+            }
+            // 结束后保留一段时间，供断线的客户端补齐末尾
+            Schedulers.parallel().schedule(() -> streams.remove(generationId, this),
+                    generationStreamConfig.getRetainAfterCompleteMs(), TimeUnit.MILLISECONDS);
+        }
+
+        /**
+         * 所有客户端断开后，宽限时间内没有重连则取消生成
+         */
+        private synchronized void scheduleDetach() {
+            if (detachTimer != null) {
+                detachTimer.dispose();
+            }
+            detachTimer = Schedulers.parallel().schedule(this::detach,
+                    generationStreamConfig.getDetachGraceMs(), TimeUnit.MILLISECONDS);
+        }
+
+        private void detach() {
+            synchronized (this) {
+                if (subscribers > 0 || terminated) {
+                    return;
+                }
+                terminated = true;
+                detachTimer = null;
+            }
+            log.info("生成 {} 的客户端已全部断开，取消生成，appId: {}", generationId, appId);
+            streams.remove(generationId, this);
+            Disposable current = upstream;
+            if (current != null) {
+                current.dispose();
+            }
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.pd.pdaicodemother.manager;
+
+import com.pd.pdaicodemother.config.TokenUsageWriterConfig;
+import com.pd.pdaicodemother.mapper.AppTokenUsageMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token 用量汇总异步写入器
+ * 用量先进入有界队列，由虚拟线程批量累加到汇总表，同一用户、应用、日期的用量在一批内合并为一条语句；
+ * 队列满时同步写入，关闭时写完剩余用量
+ */
+@Slf4j
+@Component
+public class TokenUsageAppender {
+
+    @Resource
+    private AppTokenUsageMapper appTokenUsageMapper;
+
+    @Resource
+    private TokenUsageWriterConfig tokenUsageWriterConfig;
+
+    @Resource
+    private MeterRegistry meterRegistry;
+
+    private final BatchingWriter<UsageRecord> writer = new BatchingWriter<>("token-usage-writer", "Token 用量", this::writeBatch);
+
+    @PostConstruct
+    public void start() {
+        writer.bindMetrics(meterRegistry, "token.usage.writer");
+        if (!tokenUsageWriterConfig.isEnabled()) {
+            return;
+        }
+        writer.start(tokenUsageWriterConfig.getQueueCapacity(), tokenUsageWriterConfig.getBatchSize(),
+                tokenUsageWriterConfig.getOfferTimeoutMs());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        writer.shutdown(tokenUsageWriterConfig.getShutdownTimeoutMs());
+    }
+
+    /**
+     * 追加一次生成的用量，统计日期在调用时确定
+     *
+     * @param appId        应用 ID
+     * @param userId       用户 ID
+     * @param inputTokens  输入 Token 数
+     * @param outputTokens 输出 Token 数
+     */
+    public void append(Long appId, Long userId, long inputTokens, long outputTokens) {
+        writer.submit(new UsageRecord(userId, appId, LocalDate.now(), inputTokens, outputTokens));
+    }
+
+    /**
+     * 按用户、应用、日期合并后逐组累加
+     *
+     * @return 成功累加的用量条数
+     */
+    private int writeBatch(List<UsageRecord> batch) {
+        Map<UsageKey, List<UsageRecord>> groups = new LinkedHashMap<>();
+        for (UsageRecord usageRecord : batch) {
+            groups.computeIfAbsent(usageRecord.key(), key -> new ArrayList<>()).add(usageRecord);
+        }
+        int written = 0;
+        for (Map.Entry<UsageKey, List<UsageRecord>> group : groups.entrySet()) {
+            if (writeOne(group.getKey(), group.getValue())) {
+                written += group.getValue().size();
+            }
+        }
+        return written;
+    }
+
+    private boolean writeOne(UsageKey key, List<UsageRecord> records) {
+        long inputTokens = 0;
+        long outputTokens = 0;
+        for (UsageRecord usageRecord : records) {
+            inputTokens += usageRecord.inputTokens();
+            outputTokens += usageRecord.outputTokens();
+        }
+        try {
+            appTokenUsageMapper.accumulate(key.userId(), key.appId(), key.statDate(), records.size(), inputTokens, outputTokens);
+            return true;
+        } catch (Exception e) {
+            log.error("累加 Token 用量失败，appId: {}, 错误: {}", key.appId(), e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 汇总表的唯一键
+     */
+    private record UsageKey(Long userId, Long appId, LocalDate statDate) {
+    }
+
+    /**
+     * 一次生成的用量
+     */
+    private record UsageRecord(Long userId, Long appId, LocalDate statDate, long inputTokens, long outputTokens) {
+
+        UsageKey key() {
+            return new UsageKey(userId, appId, statDate);
+        }
+    }
+}
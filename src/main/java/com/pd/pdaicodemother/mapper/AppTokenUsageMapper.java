@@ -0,0 +1,27 @@
+package com.pd.pdaicodemother.mapper;
+
+import com.mybatisflex.core.BaseMapper;
+import com.pd.pdaicodemother.model.entity.AppTokenUsage;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDate;
+
+/**
+ * Token 用量汇总 映射层。
+ *
+ * @author <a href="https://github.com/Tiangero">程序员皮蛋</a>
+ */
+public interface AppTokenUsageMapper extends BaseMapper<AppTokenUsage> {
+
+    /**
+     * 累加若干次生成的用量（当天没有记录时插入）
+     */
+    @Insert("insert into app_token_usage (userId, appId, statDate, generationCount, inputTokens, outputTokens) " +
+            "values (#{userId}, #{appId}, #{statDate}, #{generationCount}, #{inputTokens}, #{outputTokens}) " +
+            "on duplicate key update generationCount = generationCount + values(generationCount), " +
+            "inputTokens = inputTokens + values(inputTokens), outputTokens = outputTokens + values(outputTokens)")
+    int accumulate(@Param("userId") Long userId, @Param("appId") Long appId, @Param("statDate") LocalDate statDate,
+                   @Param("generationCount") int generationCount,
+                   @Param("inputTokens") long inputTokens, @Param("outputTokens") long outputTokens);
+}
@@ -2,6 +2,7 @@ package com.pd.pdaicodemother.mapper;
 
 import com.mybatisflex.core.BaseMapper;
 import com.pd.pdaicodemother.model.entity.ChatHistory;
+import org.apache.ibatis.annotations.Insert;
 
 /**
  * 对话历史 映射层。
@@ -10,4 +11,10 @@ import com.pd.pdaicodemother.model.entity.ChatHistory;
  */
 public interface ChatHistoryMapper extends BaseMapper<ChatHistory> {
 
+    /**
+     * 按固定列插入（主键需预先生成），空值同样绑定，保证每条消息的 SQL 一致以便 JDBC 批量合并
+     */
+    @Insert("insert into chat_history (id, message, messageType, appId, userId, inputTokens, outputTokens, createTime) " +
+            "values (#{id}, #{message}, #{messageType}, #{appId}, #{userId}, #{inputTokens}, #{outputTokens}, #{createTime})")
+    int insertFixedColumns(ChatHistory chatHistory);
 }
@@ -0,0 +1,86 @@
+package com.pd.pdaicodemother.model.entity;
+
+import com.mybatisflex.annotation.Column;
+import com.mybatisflex.annotation.Id;
+import com.mybatisflex.annotation.KeyType;
+import com.mybatisflex.annotation.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Token 用量汇总 实体类（按用户、应用、日期汇总）。
+ *
+ * @author <a href="https://github.com/Tiangero">程序员皮蛋</a>
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Table("app_token_usage")
+public class AppTokenUsage implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * id
+     */
+    @Id(keyType = KeyType.Auto)
+    private Long id;
+
+    /**
+     * 用户id
+     */
+    @Column("userId")
+    private Long userId;
+
+    /**
+     * 应用id
+     */
+    @Column("appId")
+    private Long appId;
+
+    /**
+     * 统计日期
+     */
+    @Column("statDate")
+    private LocalDate statDate;
+
+    /**
+     * 生成次数
+     */
+    @Column("generationCount")
+    private Integer generationCount;
+
+    /**
+     * 输入 Token 数
+     */
+    @Column("inputTokens")
+    private Long inputTokens;
+
+    /**
+     * 输出 Token 数
+     */
+    @Column("outputTokens")
+    private Long outputTokens;
+
+    /**
+     * 创建时间
+     */
+    @Column("createTime")
+    private LocalDateTime createTime;
+
+    /**
+     * 更新时间
+     */
+    @Column("updateTime")
+    private LocalDateTime updateTime;
+
+}
@@ -60,6 +60,18 @@ public class ChatHistory implements Serializable {
     @Column("userId")
     private Long userId;
 
+    /**
+     * 输入 Token 数（仅 AI 消息）
+     */
+    @Column("inputTokens")
+    private Integer inputTokens;
+
+    /**
+     * 输出 Token 数（仅 AI 消息）
+     */
+    @Column("outputTokens")
+    private Integer outputTokens;
+
     /**
      * 创建时间
      */
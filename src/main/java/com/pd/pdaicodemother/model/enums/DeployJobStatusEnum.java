@@ -0,0 +1,50 @@
+package com.pd.pdaicodemother.model.enums;
+
+import cn.hutool.core.util.ObjUtil;
+import lombok.Getter;
+
+/**
+ * 部署任务状态枚举
+ */
+@Getter
+public enum DeployJobStatusEnum {
+
+    WAITING("等待部署", "waiting"),
+    BUILDING("构建中", "building"),
+    COPYING("复制文件中", "copying"),
+    SUCCEED("部署成功", "succeed"),
+    FAILED("部署失败", "failed");
+
+    private final String text;
+    private final String value;
+
+    DeployJobStatusEnum(String text, String value) {
+        this.text = text;
+        this.value = value;
+    }
+
+    /**
+     * 是否已结束
+     */
+    public boolean isFinished() {
+        return this == SUCCEED || this == FAILED;
+    }
+
+    /**
+     * 根据 value 获取枚举
+     *
+     * @param value 枚举值的value
+     * @return 枚举值
+     */
+    public static DeployJobStatusEnum getEnumByValue(String value) {
+        if (ObjUtil.isEmpty(value)) {
+            return null;
+        }
+        for (DeployJobStatusEnum anEnum : DeployJobStatusEnum.values()) {
+            if (anEnum.value.equals(value)) {
+                return anEnum;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,35 @@
+package com.pd.pdaicodemother.model.vo;
+
+import com.pd.pdaicodemother.model.entity.ChatHistory;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 对话历史游标分页结果
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatHistoryCursorPageVO implements Serializable {
+
+    /**
+     * 本页记录（按创建时间、id 降序）
+     */
+    private List<ChatHistory> records;
+
+    /**
+     * 下一页游标，没有更多数据时为 null
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有更多数据
+     */
+    private boolean hasMore;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,55 @@
+package com.pd.pdaicodemother.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 部署任务
+ */
+@Data
+public class DeployJobVO implements Serializable {
+
+    /**
+     * 任务 id
+     */
+    private String jobId;
+
+    /**
+     * 应用 id
+     */
+    private Long appId;
+
+    /**
+     * 状态（waiting / building / copying / succeed / failed）
+     */
+    private String status;
+
+    /**
+     * 状态描述
+     */
+    private String statusText;
+
+    /**
+     * 部署成功后的访问地址
+     */
+    private String deployUrl;
+
+    /**
+     * 部署失败的原因
+     */
+    private String errorMessage;
+
+    /**
+     * 提交时间
+     */
+    private LocalDateTime createTime;
+
+    /**
+     * 结束时间
+     */
+    private LocalDateTime finishTime;
+
+    private static final long serialVersionUID = 1L;
+}
@@ -0,0 +1,228 @@
+package com.pd.pdaicodemother.monitor;
+
+import com.pd.pdaicodemother.ai.model.message.AiResponseMessage;
+import com.pd.pdaicodemother.ai.model.message.StreamMessage;
+import com.pd.pdaicodemother.ai.model.message.TokenUsageMessage;
+import com.pd.pdaicodemother.model.enums.CodeGenTypeEnum;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Metrics;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 生成链路指标
+ * 统一定义生成过程中的计时器和计数器，通过全局注册表上报（Spring Boot 会将 Prometheus 注册表加入全局注册表），
+ * 静态的解析、保存执行器和工具执行也能直接使用；未引入注册表时（如单元测试）记录为空操作
+ */
+public class GenerationMetrics {
+
+    /**
+     * 当前活跃的 SSE 流数量
+     */
+    private static final AtomicInteger ACTIVE_STREAMS = Metrics.globalRegistry.gauge(
+            "generation.sse.active", new AtomicInteger());
+
+    private GenerationMetrics() {
+    }
+
+    /**
+     * 统计大模型的首 token 延迟、输出速度（流式片段数近似 token 数）和 Token 用量
+     *
+     * @param modelStream     大模型输出的消息流
+     * @param codeGenTypeEnum 生成类型
+     * @return 带统计的消息流
+     */
+    public static Flux<StreamMessage> instrumentModelStream(Flux<StreamMessage> modelStream, CodeGenTypeEnum codeGenTypeEnum) {
+        String type = codeGenTypeEnum.getValue();
+        return Flux.defer(() -> {
+            long startNanos = System.nanoTime();
+            AtomicLong firstTokenNanos = new AtomicLong();
+            AtomicLong tokenCount = new AtomicLong();
+            // 用量消息是累计值，流结束（含取消和出错）时只记录最后一次
+            AtomicReference<TokenUsageMessage> tokenUsage = new AtomicReference<>();
+            return modelStream
+                    .doOnNext(message -> {
+                        if (message instanceof TokenUsageMessage tokenUsageMessage) {
+                            tokenUsage.set(tokenUsageMessage);
+                            return;
+                        }
+                        if (!(message instanceof AiResponseMessage)) {
+                            return;
+                        }
+                        if (tokenCount.getAndIncrement() == 0) {
+                            long now = System.nanoTime();
+                            firstTokenNanos.set(now);
+                            Timer.builder("llm.first.token")
+                                    .description("大模型首 token 延迟")
+                                    .tag("type", type)
+                                    .register(Metrics.globalRegistry)
+                                    .record(now - startNanos, TimeUnit.NANOSECONDS);
+                        }
+                    })
+                    .doOnComplete(() -> {
+                        long tokens = tokenCount.get();
+                        long elapsedNanos = System.nanoTime() - firstTokenNanos.get();
+                        if (tokens < 2 || elapsedNanos <= 0) {
+                            return;
+                        }
+                        DistributionSummary.builder("llm.tokens.per.second")
+                                .description("大模型输出速度（首 token 之后）")
+                                .tag("type", type)
+                                .register(Metrics.globalRegistry)
+                                .record((tokens - 1) * 1e9 / elapsedNanos);
+                    })
+                    .doFinally(signalType -> {
+                        TokenUsageMessage lastUsage = tokenUsage.get();
+                        if (lastUsage != null) {
+                            recordTokenUsage(type, lastUsage);
+                        }
+                    });
+        });
+    }
+
+    /**
+     * 记录一次生成的 Token 用量：累计计数用于成本统计，单次输入分布用于发现上下文过大的请求
+     */
+    private static void recordTokenUsage(String type, TokenUsageMessage tokenUsageMessage) {
+        Counter.builder("llm.tokens")
+                .description("大模型 Token 用量")
+                .tag("type", type)
+                .tag("direction", "input")
+                .register(Metrics.globalRegistry)
+                .increment(tokenUsageMessage.getInputTokens());
+        Counter.builder("llm.tokens")
+                .description("大模型 Token 用量")
+                .tag("type", type)
+                .tag("direction", "output")
+                .register(Metrics.globalRegistry)
+                .increment(tokenUsageMessage.getOutputTokens());
+        DistributionSummary.builder("llm.generation.input.tokens")
+                .description("单次生成的输入 Token 数")
+                .tag("type", type)
+                .register(Metrics.globalRegistry)
+                .record(tokenUsageMessage.getInputTokens());
+    }
+
+    /**
+     * 统计活跃的 SSE 流（订阅时加一，结束、出错或断开时减一）
+     */
+    public static <T> Flux<T> trackActiveStream(Flux<T> stream) {
+        return Flux.defer(() -> {
+            ACTIVE_STREAMS.incrementAndGet();
+            return stream.doFinally(signalType -> ACTIVE_STREAMS.decrementAndGet());
+        });
+    }
+
+    /**
+     * 记录代码解析耗时
+     *
+     * @param codeGenTypeEnum 生成类型
+     * @param mode            batch（整段解析）/ streaming（流式解析收尾）
+     */
+    public static <T> T recordParse(CodeGenTypeEnum codeGenTypeEnum, String mode, Supplier<T> action) {
+        return record("code.parse.duration", "代码解析耗时", codeGenTypeEnum, mode, action);
+    }
+
+    /**
+     * 记录代码保存耗时
+     *
+     * @param codeGenTypeEnum 生成类型
+     * @param mode            batch（整体保存）/ streaming（流式保存收尾）
+     */
+    public static <T> T recordSave(CodeGenTypeEnum codeGenTypeEnum, String mode, Supplier<T> action) {
+        return record("code.save.duration", "代码保存耗时", codeGenTypeEnum, mode, action);
+    }
+
+    /**
+     * 记录工具执行耗时
+     *
+     * @param toolName 工具英文名称（对应 BaseTool#getToolName）
+     * @param nanos    耗时（纳秒）
+     * @param success  是否执行成功
+     */
+    public static void recordToolExecution(String toolName, long nanos, boolean success) {
+        Timer.builder("ai.tool.execution")
+                .description("工具执行耗时")
+                .tag("tool", String.valueOf(toolName))
+                .tag("success", String.valueOf(success))
+                .register(Metrics.globalRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录 Vue 项目构建步骤耗时
+     *
+     * @param step    install / build
+     * @param nanos   耗时（纳秒）
+     * @param success 是否执行成功
+     */
+    public static void recordNpmStep(String step, long nanos, boolean success) {
+        Timer.builder("vue.build.step")
+                .description("Vue 项目 npm 命令耗时")
+                .tag("step", step)
+                .tag("success", String.valueOf(success))
+                .register(Metrics.globalRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录 Vue 项目依赖缓存是否命中
+     */
+    public static void recordNodeModulesCache(boolean hit) {
+        Counter.builder("vue.build.node.modules.cache")
+                .description("Vue 项目依赖缓存命中情况")
+                .tag("result", hit ? "hit" : "miss")
+                .register(Metrics.globalRegistry)
+                .increment();
+    }
+
+    /**
+     * 记录因源码未变化而跳过的 Vue 项目构建
+     */
+    public static void recordBuildSkipped() {
+        Counter.builder("vue.build.skipped")
+                .description("源码未变化跳过的 Vue 项目构建数")
+                .register(Metrics.globalRegistry)
+                .increment();
+    }
+
+    /**
+     * 记录网页截图耗时
+     *
+     * @param nanos   耗时（纳秒）
+     * @param success 是否生成成功
+     */
+    public static void recordScreenshot(long nanos, boolean success) {
+        Timer.builder("screenshot.duration")
+                .description("网页截图耗时")
+                .tag("success", String.valueOf(success))
+                .register(Metrics.globalRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private static <T> T record(String name, String description, CodeGenTypeEnum codeGenTypeEnum, String mode,
+                                Supplier<T> action) {
+        long startNanos = System.nanoTime();
+        boolean success = false;
+        try {
+            T result = action.get();
+            success = true;
+            return result;
+        } finally {
+            Timer.builder(name)
+                    .description(description)
+                    .tag("type", codeGenTypeEnum == null ? "unknown" : codeGenTypeEnum.getValue())
+                    .tag("mode", mode)
+                    .tag("success", String.valueOf(success))
+                    .register(Metrics.globalRegistry)
+                    .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+}
@@ -6,10 +6,13 @@ import com.pd.pdaicodemother.model.dto.app.AppAddRequest;
 import com.pd.pdaicodemother.model.dto.app.AppQueryRequest;
 import com.pd.pdaicodemother.model.entity.App;
 import com.pd.pdaicodemother.model.entity.User;
+import com.pd.pdaicodemother.model.enums.DeployJobStatusEnum;
 import com.pd.pdaicodemother.model.vo.AppVO;
+import com.pd.pdaicodemother.model.vo.DeployJobVO;
 import reactor.core.publisher.Flux;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
  * 应用 服务层。
@@ -37,6 +40,34 @@ public interface AppService extends IService<App> {
      */
     String deployApp(Long appId, User loginUser);
 
+    /**
+     * 应用部署，执行过程中回调当前状态
+     *
+     * @param appId          应用 ID
+     * @param loginUser      登录用户
+     * @param statusListener 状态回调（构建中、复制文件中）
+     * @return 部署 URL
+     */
+    String deployApp(Long appId, User loginUser, Consumer<DeployJobStatusEnum> statusListener);
+
+    /**
+     * 提交异步部署任务，同一应用进行中的部署会被合并
+     *
+     * @param appId     应用 ID
+     * @param loginUser 登录用户
+     * @return 部署任务
+     */
+    DeployJobVO submitDeployJob(Long appId, User loginUser);
+
+    /**
+     * 查询部署任务
+     *
+     * @param jobId     任务 id
+     * @param loginUser 登录用户
+     * @return 部署任务
+     */
+    DeployJobVO getDeployJob(String jobId, User loginUser);
+
     void generateAppScreenshotAsync(Long appId, String appUrl);
 
     AppVO getAppVO(App app);
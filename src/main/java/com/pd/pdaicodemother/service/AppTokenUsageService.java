@@ -0,0 +1,37 @@
+package com.pd.pdaicodemother.service;
+
+import com.mybatisflex.core.service.IService;
+import com.pd.pdaicodemother.model.entity.AppTokenUsage;
+
+/**
+ * Token 用量汇总 服务层。
+ *
+ * @author <a href="https://github.com/Tiangero">程序员皮蛋</a>
+ */
+public interface AppTokenUsageService extends IService<AppTokenUsage> {
+
+    /**
+     * 累加一次生成的 Token 用量（经有界队列异步写入汇总表）
+     *
+     * @param appId        应用 ID
+     * @param userId       用户 ID
+     * @param inputTokens  输入 Token 数
+     * @param outputTokens 输出 Token 数
+     */
+    void recordUsage(Long appId, Long userId, long inputTokens, long outputTokens);
+
+    /**
+     * 获取用户当天的 Token 用量（输入 + 输出）
+     *
+     * @param userId 用户 ID
+     * @return Token 数
+     */
+    long getUserTodayTokens(Long userId);
+
+    /**
+     * 校验用户当天的 Token 用量是否超出上限，超出时抛出异常
+     *
+     * @param userId 用户 ID
+     */
+    void checkUserQuota(Long userId);
+}
@@ -3,12 +3,17 @@ package com.pd.pdaicodemother.service;
 import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.service.IService;
+import com.pd.pdaicodemother.ai.model.message.TokenUsageMessage;
+import com.pd.pdaicodemother.core.buffer.ResponseBuffer;
 import com.pd.pdaicodemother.model.dto.chathistory.ChatHistoryQueryRequest;
 import com.pd.pdaicodemother.model.entity.ChatHistory;
 import com.pd.pdaicodemother.model.entity.User;
+import com.pd.pdaicodemother.model.vo.ChatHistoryCursorPageVO;
+import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 /**
  * 对话历史 服务层。
@@ -28,6 +33,15 @@ public interface ChatHistoryService extends IService<ChatHistory> {
      */
     int loadChatHistoryToMemory(Long appId, MessageWindowChatMemory chatMemory, int maxCount);
 
+    /**
+     * 查询用于恢复记忆的对话历史（按时间正序，不包含最新一条）
+     *
+     * @param appId
+     * @param maxCount
+     * @return
+     */
+    List<ChatMessage> listChatMessagesForMemory(Long appId, int maxCount);
+
     /**
      * 分页查询对话历史
      *
@@ -39,6 +53,17 @@ public interface ChatHistoryService extends IService<ChatHistory> {
      */
     Page<ChatHistory> listAppChatHistoryByPage(Long appId, int pageSize, LocalDateTime lastCreateTime, User loginUser);
 
+    /**
+     * 游标查询对话历史（以 createTime + id 作为游标，不查询总数）
+     *
+     * @param appId
+     * @param pageSize
+     * @param cursor    上一页返回的 nextCursor，查询第一页时为空
+     * @param loginUser
+     * @return
+     */
+    ChatHistoryCursorPageVO listAppChatHistoryByCursor(Long appId, int pageSize, String cursor, User loginUser);
+
     /**
      * 插入消息记录
      *
@@ -50,6 +75,42 @@ public interface ChatHistoryService extends IService<ChatHistory> {
      */
     boolean addChatMessage(Long appId, String message, String messageType, Long userId);
 
+    /**
+     * 插入消息记录（从响应缓冲区读取内容）
+     *
+     * @param appId
+     * @param responseBuffer
+     * @param messageType
+     * @param userId
+     * @return
+     */
+    boolean addChatMessage(Long appId, ResponseBuffer responseBuffer, String messageType, Long userId);
+
+    /**
+     * 插入 AI 消息记录并记录本次生成的 Token 用量
+     *
+     * @param appId
+     * @param responseBuffer
+     * @param messageType
+     * @param userId
+     * @param tokenUsage     Token 用量，为空时不记录
+     * @return
+     */
+    boolean addChatMessage(Long appId, ResponseBuffer responseBuffer, String messageType, Long userId,
+                           TokenUsageMessage tokenUsage);
+
+    /**
+     * 插入 AI 消息记录并记录 Token 用量（用于中断和失败时保存已消耗的用量）
+     *
+     * @param appId
+     * @param message
+     * @param messageType
+     * @param userId
+     * @param tokenUsage  Token 用量，为空时不记录
+     * @return
+     */
+    boolean addChatMessage(Long appId, String message, String messageType, Long userId, TokenUsageMessage tokenUsage);
+
     /**
      * 获取查询条件
      *
@@ -2,29 +2,42 @@ package com.pd.pdaicodemother.service.impl;
 
 import cn.hutool.core.bean.BeanUtil;
 import cn.hutool.core.collection.CollUtil;
-import cn.hutool.core.io.FileUtil;
 import cn.hutool.core.util.RandomUtil;
 import cn.hutool.core.util.StrUtil;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.pd.pdaicodemother.ai.AiCodeGenTypeRoutingService;
+import com.pd.pdaicodemother.ai.model.message.StreamMessage;
 import com.pd.pdaicodemother.ai.constant.AppConstant;
+import com.pd.pdaicodemother.config.ResponseBufferConfig;
+import com.pd.pdaicodemother.config.VueBuildSchedulerConfig;
 import com.pd.pdaicodemother.core.AiCodeGeneratorFacade;
-import com.pd.pdaicodemother.core.builder.VueProjectBuilder;
+import com.pd.pdaicodemother.core.buffer.ResponseBuffer;
+import com.pd.pdaicodemother.core.builder.VueBuildScheduler;
+import com.pd.pdaicodemother.core.builder.VueBuildScheduler.BuildPriority;
 import com.pd.pdaicodemother.core.handler.StreamHandlerExecutor;
 import com.pd.pdaicodemother.exception.BusinessException;
 import com.pd.pdaicodemother.exception.ErrorCode;
 import com.pd.pdaicodemother.exception.ThrowUtils;
+import com.pd.pdaicodemother.manager.ChatHistoryAppender;
+import com.pd.pdaicodemother.manager.ChatHistoryHotCache;
+import com.pd.pdaicodemother.manager.DeployJobManager;
+import com.pd.pdaicodemother.manager.DeployVersionManager;
+import com.pd.pdaicodemother.manager.GenerationLeaseManager;
+import com.pd.pdaicodemother.manager.GenerationLeaseManager.GenerationLease;
 import com.pd.pdaicodemother.model.dto.app.AppAddRequest;
 import com.pd.pdaicodemother.model.dto.app.AppQueryRequest;
 import com.pd.pdaicodemother.model.entity.App;
 import com.pd.pdaicodemother.mapper.AppMapper;
 import com.pd.pdaicodemother.model.entity.User;
 import com.pd.pdaicodemother.model.enums.CodeGenTypeEnum;
+import com.pd.pdaicodemother.model.enums.DeployJobStatusEnum;
 import com.pd.pdaicodemother.model.enums.MessageTypeEnum;
 import com.pd.pdaicodemother.model.vo.AppVO;
+import com.pd.pdaicodemother.model.vo.DeployJobVO;
 import com.pd.pdaicodemother.model.vo.UserVO;
 import com.pd.pdaicodemother.service.AppService;
+import com.pd.pdaicodemother.service.AppTokenUsageService;
 import com.pd.pdaicodemother.service.ChatHistoryService;
 import com.pd.pdaicodemother.service.ScreenshotService;
 import com.pd.pdaicodemother.service.UserService;
@@ -42,6 +55,11 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 /**
@@ -63,11 +81,35 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
     private ChatHistoryService chatHistoryService;
 
     @Resource
-    private VueProjectBuilder vueProjectBuilder;
+    private VueBuildScheduler vueBuildScheduler;
+
+    @Resource
+    private VueBuildSchedulerConfig vueBuildSchedulerConfig;
+
+    @Resource
+    private DeployJobManager deployJobManager;
+
+    @Resource
+    private DeployVersionManager deployVersionManager;
 
     @Resource
     private StreamHandlerExecutor streamHandlerExecutor;
 
+    @Resource
+    private ResponseBufferConfig responseBufferConfig;
+
+    @Resource
+    private ChatHistoryAppender chatHistoryAppender;
+
+    @Resource
+    private ChatHistoryHotCache chatHistoryHotCache;
+
+    @Resource
+    private GenerationLeaseManager generationLeaseManager;
+
+    @Resource
+    private AppTokenUsageService appTokenUsageService;
+
     @Resource
     private ScreenshotService screenshotService;
 
@@ -94,12 +136,23 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         // 3. 获取生成代码类型
         CodeGenTypeEnum codeTypeEnum = CodeGenTypeEnum.getEnumByValue(app.getCodeGenType());
         ThrowUtils.throwIf(codeTypeEnum == null, ErrorCode.PARAMS_ERROR, "不支持的生成代码类型");
-        // 4. 将用户消息插入到对话
-        chatHistoryService.addChatMessage(appId, message, MessageTypeEnum.USER.getValue(), loginUser.getId());
-        // 5. 调用AI生成
-        Flux<String> aiResponseFlux = aiCodeGeneratorFacade.generateAndSaveCodeStream(message, codeTypeEnum, appId);
-        // 6. 处理不同类型的消息响应
-        return streamHandlerExecutor.doExecute(aiResponseFlux, chatHistoryService, appId, loginUser, codeTypeEnum);
+        // 4. 校验用户当天的 Token 用量
+        appTokenUsageService.checkUserQuota(loginUser.getId());
+        // 5. 获取生成租约，同一应用同一时间只允许一次生成，流结束（完成、出错或取消）时释放
+        GenerationLease generationLease = generationLeaseManager.acquire(appId);
+        try {
+            // 6. 将用户消息插入到对话
+            chatHistoryService.addChatMessage(appId, message, MessageTypeEnum.USER.getValue(), loginUser.getId());
+            // 7. 调用AI生成（本次生成共享一个响应缓冲区，由流处理器最终释放）
+            ResponseBuffer responseBuffer = responseBufferConfig.createBuffer();
+            Flux<StreamMessage> aiResponseFlux = aiCodeGeneratorFacade.generateAndSaveCodeStream(message, codeTypeEnum, appId, responseBuffer);
+            // 8. 处理不同类型的消息响应
+            return streamHandlerExecutor.doExecute(aiResponseFlux, chatHistoryService, appId, loginUser, codeTypeEnum, responseBuffer)
+                    .doFinally(signalType -> generationLease.release());
+        } catch (RuntimeException e) {
+            generationLease.release();
+            throw e;
+        }
     }
 
     @Override
@@ -108,12 +161,42 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         long appId = Long.parseLong(id.toString());
         boolean result = super.removeById(appId);
         ThrowUtils.throwIf(!result, ErrorCode.OPERATION_ERROR, "删除应用失败");
+        // 先写完尚未落库的消息，避免删除后又被插入
+        chatHistoryAppender.flush(appId);
         chatHistoryService.removeByMap(Map.of("appId", appId));
+        chatHistoryHotCache.invalidate(appId);
         return true;
     }
 
     @Override
     public String deployApp(Long appId, User loginUser) {
+        return deployApp(appId, loginUser, status -> {
+        });
+    }
+
+    @Override
+    public DeployJobVO submitDeployJob(Long appId, User loginUser) {
+        // 提交前先校验，参数和权限问题直接返回给调用方
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用 ID 不能为空");
+        ThrowUtils.throwIf(loginUser == null, ErrorCode.NOT_LOGIN_ERROR, "用户未登录");
+        App app = this.getById(appId);
+        ThrowUtils.throwIf(app == null, ErrorCode.NOT_FOUND_ERROR, "应用不存在");
+        if (!app.getUserId().equals(loginUser.getId())) {
+            throw new BusinessException(ErrorCode.NO_AUTH_ERROR, "无权限部署该应用");
+        }
+        return deployJobManager.submit(appId, loginUser.getId(),
+                statusListener -> deployApp(appId, loginUser, statusListener));
+    }
+
+    @Override
+    public DeployJobVO getDeployJob(String jobId, User loginUser) {
+        ThrowUtils.throwIf(StrUtil.isBlank(jobId), ErrorCode.PARAMS_ERROR, "任务 id 不能为空");
+        ThrowUtils.throwIf(loginUser == null, ErrorCode.NOT_LOGIN_ERROR, "用户未登录");
+        return deployJobManager.getJob(jobId, loginUser.getId());
+    }
+
+    @Override
+    public String deployApp(Long appId, User loginUser, Consumer<DeployJobStatusEnum> statusListener) {
         // 1. 参数校验
         ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用 ID 不能为空");
         ThrowUtils.throwIf(loginUser == null, ErrorCode.NOT_LOGIN_ERROR, "用户未登录");
@@ -141,17 +224,19 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         }
         // 7. vue项目特殊处理
         if (CodeGenTypeEnum.VUE_PROJECT.getValue().equals(codeGenType)) {
-            // 构建项目
-            boolean buildSuccess = vueProjectBuilder.buildProject(sourceDirPath);
+            statusListener.accept(DeployJobStatusEnum.BUILDING);
+            // 构建项目（优先于后台构建执行，已在排队的同一项目构建会被合并）
+            boolean buildSuccess = awaitBuild(vueBuildScheduler.submit(sourceDirPath, BuildPriority.DEPLOY));
             ThrowUtils.throwIf(!buildSuccess, ErrorCode.SYSTEM_ERROR, "构建 Vue 项目失败");
             // 将dist目录作为sourceDir
             sourceDir = new File(sourceDirPath, "dist");
             log.info("Vue 项目构建成功：{}", sourceDir.getAbsolutePath());
         }
         // 8. 复制文件到部署目录
-        String deployDirPath = AppConstant.CODE_DEPLOY_ROOT_DIR + File.separator + deployKey;
+        statusListener.accept(DeployJobStatusEnum.COPYING);
         try {
-            FileUtil.copyContent(sourceDir, new File(deployDirPath), true);
+            // 写入新的版本目录后原子切换，未变化的文件复用上一版本
+            deployVersionManager.publish(sourceDir, deployKey);
         } catch (Exception e) {
             throw new BusinessException(ErrorCode.SYSTEM_ERROR, "部署失败：" + e.getMessage());
         }
@@ -169,6 +254,22 @@ public class AppServiceImpl extends ServiceImpl<AppMapper, App> implements AppSe
         return deployAppUrl;
     }
 
+    /**
+     * 等待部署构建完成
+     */
+    private boolean awaitBuild(CompletableFuture<Boolean> buildFuture) {
+        try {
+            return buildFuture.get(vueBuildSchedulerConfig.getDeployWaitTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "构建 Vue 项目超时，请稍后重试");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "构建 Vue 项目被中断");
+        } catch (ExecutionException e) {
+            throw new BusinessException(ErrorCode.SYSTEM_ERROR, "构建 Vue 项目失败");
+        }
+    }
+
     @Override
     public Long createApp(AppAddRequest appAddRequest, User loginUser) {
         // 参数校验
@@ -0,0 +1,66 @@
+package com.pd.pdaicodemother.service.impl;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.spring.service.impl.ServiceImpl;
+import com.pd.pdaicodemother.config.TokenUsageConfig;
+import com.pd.pdaicodemother.exception.ErrorCode;
+import com.pd.pdaicodemother.exception.ThrowUtils;
+import com.pd.pdaicodemother.manager.TokenUsageAppender;
+import com.pd.pdaicodemother.mapper.AppTokenUsageMapper;
+import com.pd.pdaicodemother.model.entity.AppTokenUsage;
+import com.pd.pdaicodemother.service.AppTokenUsageService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Token 用量汇总 服务层实现。
+ *
+ * @author <a href="https://github.com/Tiangero">程序员皮蛋</a>
+ */
+@Slf4j
+@Service
+public class AppTokenUsageServiceImpl extends ServiceImpl<AppTokenUsageMapper, AppTokenUsage> implements AppTokenUsageService {
+
+    @Resource
+    private TokenUsageConfig tokenUsageConfig;
+
+    @Resource
+    private TokenUsageAppender tokenUsageAppender;
+
+    @Override
+    public void recordUsage(Long appId, Long userId, long inputTokens, long outputTokens) {
+        if (appId == null || userId == null) {
+            return;
+        }
+        // 由有界队列批量写入，不阻塞流式响应的完成回调
+        tokenUsageAppender.append(appId, userId, inputTokens, outputTokens);
+    }
+
+    @Override
+    public long getUserTodayTokens(Long userId) {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select("inputTokens", "outputTokens")
+                .eq("userId", userId)
+                .eq("statDate", LocalDate.now());
+        List<AppTokenUsage> usages = this.list(queryWrapper);
+        long total = 0;
+        for (AppTokenUsage usage : usages) {
+            total += usage.getInputTokens() + usage.getOutputTokens();
+        }
+        return total;
+    }
+
+    @Override
+    public void checkUserQuota(Long userId) {
+        long dailyUserLimit = tokenUsageConfig.getDailyUserLimit();
+        if (dailyUserLimit <= 0) {
+            return;
+        }
+        ThrowUtils.throwIf(getUserTodayTokens(userId) >= dailyUserLimit, ErrorCode.OPERATION_ERROR,
+                "今日 Token 用量已达上限，请明天再试");
+    }
+}
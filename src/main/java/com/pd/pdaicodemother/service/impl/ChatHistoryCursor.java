@@ -0,0 +1,30 @@
+package com.pd.pdaicodemother.service.impl;
+
+import com.pd.pdaicodemother.exception.BusinessException;
+import com.pd.pdaicodemother.exception.ErrorCode;
+import com.pd.pdaicodemother.model.entity.ChatHistory;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * 对话历史游标：创建时间（秒）+ id，编码为 "秒_id"
+ * 创建时间在保存时已截断到秒，与数据库中的值一致
+ */
+record ChatHistoryCursor(LocalDateTime createTime, long id) {
+
+    static String encode(ChatHistory chatHistory) {
+        return chatHistory.getCreateTime().toEpochSecond(ZoneOffset.UTC) + "_" + chatHistory.getId();
+    }
+
+    static ChatHistoryCursor decode(String cursor) {
+        try {
+            int separator = cursor.indexOf('_');
+            long epochSecond = Long.parseLong(cursor.substring(0, separator));
+            long id = Long.parseLong(cursor.substring(separator + 1));
+            return new ChatHistoryCursor(LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC), id);
+        } catch (RuntimeException e) {
+            throw new BusinessException(ErrorCode.PARAMS_ERROR, "游标格式错误");
+        }
+    }
+}
@@ -6,17 +6,26 @@ import com.mybatisflex.core.paginate.Page;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.pd.pdaicodemother.ai.constant.UserConstant;
+import com.pd.pdaicodemother.ai.model.message.TokenUsageMessage;
+import com.pd.pdaicodemother.config.ChatHistoryWriterConfig;
+import com.pd.pdaicodemother.core.buffer.ResponseBuffer;
+import com.pd.pdaicodemother.exception.BusinessException;
 import com.pd.pdaicodemother.exception.ErrorCode;
 import com.pd.pdaicodemother.exception.ThrowUtils;
+import com.pd.pdaicodemother.manager.ChatHistoryAppender;
+import com.pd.pdaicodemother.manager.ChatHistoryHotCache;
 import com.pd.pdaicodemother.model.dto.chathistory.ChatHistoryQueryRequest;
 import com.pd.pdaicodemother.model.entity.App;
 import com.pd.pdaicodemother.model.entity.ChatHistory;
 import com.pd.pdaicodemother.mapper.ChatHistoryMapper;
 import com.pd.pdaicodemother.model.entity.User;
 import com.pd.pdaicodemother.model.enums.MessageTypeEnum;
+import com.pd.pdaicodemother.model.vo.ChatHistoryCursorPageVO;
 import com.pd.pdaicodemother.service.AppService;
+import com.pd.pdaicodemother.service.AppTokenUsageService;
 import com.pd.pdaicodemother.service.ChatHistoryService;
 import dev.langchain4j.data.message.AiMessage;
+import dev.langchain4j.data.message.ChatMessage;
 import dev.langchain4j.data.message.UserMessage;
 import dev.langchain4j.memory.chat.MessageWindowChatMemory;
 import jakarta.annotation.Resource;
@@ -25,6 +34,8 @@ import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -40,6 +51,18 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
     @Lazy
     private AppService appService;
 
+    @Resource
+    private ChatHistoryAppender chatHistoryAppender;
+
+    @Resource
+    private ChatHistoryWriterConfig chatHistoryWriterConfig;
+
+    @Resource
+    private ChatHistoryHotCache chatHistoryHotCache;
+
+    @Resource
+    private AppTokenUsageService appTokenUsageService;
+
 
     /**
      * 加载对话历史到内存
@@ -51,31 +74,56 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
      */
     @Override
     public int loadChatHistoryToMemory(Long appId, MessageWindowChatMemory chatMemory, int maxCount) {
+        List<ChatMessage> messages = listChatMessagesForMemory(appId, maxCount);
+        if (CollUtil.isEmpty(messages)) return 0;
+        // 清理历史缓存，防止重复加载
+        chatMemory.clear();
+        messages.forEach(chatMemory::add);
+        return messages.size();
+    }
+
+    /**
+     * 查询用于恢复记忆的对话历史
+     *
+     * @param appId
+     * @param maxCount
+     * @return
+     */
+    @Override
+    public List<ChatMessage> listChatMessagesForMemory(Long appId, int maxCount) {
         try {
-            // 查询对话历史
-            QueryWrapper queryWrapper = QueryWrapper.create()
-                    .eq(ChatHistory::getAppId, appId)
-                    .orderBy(ChatHistory::getCreateTime, false)
-                    // 最新消息会存入到 Memory 中，需要避免
-                    .limit(1, maxCount);
-            List<ChatHistory> historyList = this.list(queryWrapper);
-            if (CollUtil.isEmpty(historyList)) return 0;
-            int loadedCount = 0;
-            // 清理历史缓存，防止重复加载
-            chatMemory.clear();
+            // 优先使用热点缓存：取最近 maxCount + 1 条，跳过最新一条（最新消息会存入到 Memory 中，需要避免）
+            List<ChatHistory> historyList;
+            List<ChatHistory> recentList = chatHistoryHotCache.getRecent(appId, maxCount + 1);
+            if (recentList != null) {
+                historyList = recentList.size() > 1 ? recentList.subList(1, recentList.size()) : List.of();
+            } else {
+                // 等待尚未落库的消息写入
+                chatHistoryAppender.flush(appId);
+                // 查询对话历史
+                QueryWrapper queryWrapper = QueryWrapper.create()
+                        .eq(ChatHistory::getAppId, appId)
+                        .orderBy(ChatHistory::getCreateTime, false)
+                        .orderBy(ChatHistory::getId, false)
+                        // 最新消息会存入到 Memory 中，需要避免
+                        .limit(1, maxCount);
+                historyList = this.list(queryWrapper);
+            }
+            if (CollUtil.isEmpty(historyList)) return new ArrayList<>();
+            // 按时间正序转换
+            List<ChatMessage> messages = new ArrayList<>(historyList.size());
             for (ChatHistory history : historyList.reversed()) {
                 if (MessageTypeEnum.USER.getValue().equals(history.getMessageType())) {
-                    chatMemory.add(UserMessage.from(history.getMessage()));
+                    messages.add(UserMessage.from(history.getMessage()));
                 } else {
-                    chatMemory.add(AiMessage.from(history.getMessage()));
+                    messages.add(AiMessage.from(history.getMessage()));
                 }
-                loadedCount++;
             }
-            log.info("成功为 appid : {} 加载了 {} 条历史记录到 Memory 中", appId, loadedCount);
-            return loadedCount;
+            log.info("成功为 appid : {} 加载了 {} 条历史记录", appId, messages.size());
+            return messages;
         } catch (Exception e) {
             log.error("加载对话历史失败,appId {} , error : {}", appId, e.getMessage());
-            return 0;
+            return new ArrayList<>();
         }
     }
 
@@ -91,11 +139,9 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
     @Override
     public Page<ChatHistory> listAppChatHistoryByPage(Long appId, int pageSize, LocalDateTime lastCreateTime, User loginUser) {
         // 验证权限
-        App app = appService.getById(appId);
-        ThrowUtils.throwIf(app == null, ErrorCode.NOT_FOUND_ERROR, "应用不存在");
-        boolean self = app.getUserId().equals(loginUser.getId());
-        boolean admin = loginUser.getUserRole().equals(UserConstant.ADMIN_ROLE);
-        ThrowUtils.throwIf(!self && !admin, ErrorCode.NO_AUTH_ERROR, "无访问权限");
+        checkReadPermission(appId, loginUser);
+        // 等待尚未落库的消息写入
+        chatHistoryAppender.flush(appId);
         // 构造条件
         ChatHistoryQueryRequest queryRequest = ChatHistoryQueryRequest.builder()
                 .appId(appId)
@@ -106,6 +152,73 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
         return page(Page.of(1, pageSize), queryWrapper);
     }
 
+    /**
+     * 游标分页获取应用对话列表
+     * 条件为 (createTime < t) OR (createTime = t AND id < lastId)，命中 idx_appId_createTime（二级索引自带主键），
+     * 多取一条判断是否还有下一页，不执行 COUNT 查询
+     *
+     * @param appId
+     * @param pageSize
+     * @param cursor
+     * @param loginUser
+     * @return
+     */
+    @Override
+    public ChatHistoryCursorPageVO listAppChatHistoryByCursor(Long appId, int pageSize, String cursor, User loginUser) {
+        ThrowUtils.throwIf(appId == null || appId <= 0, ErrorCode.PARAMS_ERROR, "应用ID不能为空");
+        ThrowUtils.throwIf(pageSize <= 0 || pageSize > 50, ErrorCode.PARAMS_ERROR, "页面大小必须在1-50之间");
+        // 验证权限
+        checkReadPermission(appId, loginUser);
+        // 第一页优先使用热点缓存
+        if (StrUtil.isBlank(cursor)) {
+            List<ChatHistory> recentList = chatHistoryHotCache.getRecent(appId, pageSize + 1);
+            if (recentList != null) {
+                return buildCursorPage(recentList, pageSize);
+            }
+        }
+        // 等待尚未落库的消息写入
+        chatHistoryAppender.flush(appId);
+        // 构造条件
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .eq(ChatHistory::getAppId, appId);
+        if (StrUtil.isNotBlank(cursor)) {
+            ChatHistoryCursor decoded = ChatHistoryCursor.decode(cursor);
+            queryWrapper.and(wrapper -> wrapper
+                    .lt(ChatHistory::getCreateTime, decoded.createTime())
+                    .or(inner -> inner
+                            .eq(ChatHistory::getCreateTime, decoded.createTime())
+                            .lt(ChatHistory::getId, decoded.id())));
+        }
+        queryWrapper.orderBy(ChatHistory::getCreateTime, false)
+                .orderBy(ChatHistory::getId, false)
+                .limit(pageSize + 1);
+        // 查询数据
+        return buildCursorPage(this.list(queryWrapper), pageSize);
+    }
+
+    /**
+     * 根据多查的一条判断是否还有下一页，并生成下一页游标
+     */
+    private ChatHistoryCursorPageVO buildCursorPage(List<ChatHistory> records, int pageSize) {
+        boolean hasMore = records.size() > pageSize;
+        if (hasMore) {
+            records = records.subList(0, pageSize);
+        }
+        String nextCursor = hasMore ? ChatHistoryCursor.encode(records.getLast()) : null;
+        return new ChatHistoryCursorPageVO(records, nextCursor, hasMore);
+    }
+
+    /**
+     * 校验是否有权限查看应用的对话历史（仅本人和管理员）
+     */
+    private void checkReadPermission(Long appId, User loginUser) {
+        App app = appService.getById(appId);
+        ThrowUtils.throwIf(app == null, ErrorCode.NOT_FOUND_ERROR, "应用不存在");
+        boolean self = app.getUserId().equals(loginUser.getId());
+        boolean admin = loginUser.getUserRole().equals(UserConstant.ADMIN_ROLE);
+        ThrowUtils.throwIf(!self && !admin, ErrorCode.NO_AUTH_ERROR, "无访问权限");
+    }
+
     /**
      * 添加用户对话
      *
@@ -124,7 +237,54 @@ public class ChatHistoryServiceImpl extends ServiceImpl<ChatHistoryMapper, ChatH
                 .message(message)
                 .messageType(messageType)
                 .build();
-        return this.save(userHistory);
+        return saveChatHistory(userHistory);
+    }
+
+    @Override
+    public boolean addChatMessage(Long appId, ResponseBuffer responseBuffer, String messageType, Long userId) {
+        // 落库时才生成完整字符串，生成过程中不额外保存副本
+        return addChatMessage(appId, responseBuffer.toString(), messageType, userId);
+    }
+
+    @Override
+    public boolean addChatMessage(Long appId, ResponseBuffer responseBuffer, String messageType, Long userId,
+                                  TokenUsageMessage tokenUsage) {
+        return addChatMessage(appId, responseBuffer.toString(), messageType, userId, tokenUsage);
+    }
+
+    @Override
+    public boolean addChatMessage(Long appId, String message, String messageType, Long userId,
+                                  TokenUsageMessage tokenUsage) {
+        if (tokenUsage == null) {
+            return addChatMessage(appId, message, messageType, userId);
+        }
+        ChatHistory aiHistory = ChatHistory.builder()
+                .appId(appId)
+                .userId(userId)
+                .createTime(LocalDateTime.now())
+                .message(message)
+                .messageType(messageType)
+                .inputTokens(tokenUsage.getInputTokens())
+                .outputTokens(tokenUsage.getOutputTokens())
+                .build();
+        boolean result = saveChatHistory(aiHistory);
+        // 按用户、应用、日期汇总
+        appTokenUsageService.recordUsage(appId, userId, tokenUsage.getInputTokens(), tokenUsage.getOutputTokens());
+        return result;
+    }
+
+    private boolean saveChatHistory(ChatHistory chatHistory) {
+        // 与 datetime 列精度一致：两种写入方式和热点缓存中的时间相同，避免落库四舍五入后游标翻页漏掉记录
+        chatHistory.setCreateTime(chatHistory.getCreateTime().truncatedTo(ChronoUnit.SECONDS));
+        // 异步批量写入，不阻塞流式响应的完成回调
+        boolean result = chatHistoryWriterConfig.isEnabled()
+                ? chatHistoryAppender.append(chatHistory)
+                : this.save(chatHistory);
+        if (result) {
+            // 同步更新热点缓存
+            chatHistoryHotCache.append(chatHistory);
+        }
+        return result;
     }
 
     /**
@@ -5,6 +5,7 @@ import cn.hutool.core.util.StrUtil;
 import com.pd.pdaicodemother.exception.ErrorCode;
 import com.pd.pdaicodemother.exception.ThrowUtils;
 import com.pd.pdaicodemother.manager.MinioManager;
+import com.pd.pdaicodemother.monitor.GenerationMetrics;
 import com.pd.pdaicodemother.service.ScreenshotService;
 import com.pd.pdaicodemother.utils.WebScreenshotUtils;
 import jakarta.annotation.Resource;
@@ -29,7 +30,9 @@ public class ScreenshotServiceImpl implements ScreenshotService {
     public String generateAndUploadScreenshot(String webUrl) {
         ThrowUtils.throwIf(StrUtil.isBlank(webUrl), ErrorCode.PARAMS_ERROR, "webUrl不能为空");
         // 1. 生成截图
+        long startNanos = System.nanoTime();
         String localScreenshotPath = WebScreenshotUtils.saveWebPageScreenshot(webUrl);
+        GenerationMetrics.recordScreenshot(System.nanoTime() - startNanos, StrUtil.isNotBlank(localScreenshotPath));
         ThrowUtils.throwIf(StrUtil.isBlank(localScreenshotPath), ErrorCode.SYSTEM_ERROR, "本地截图生成失败");
         try {
             // 2. 上传截图
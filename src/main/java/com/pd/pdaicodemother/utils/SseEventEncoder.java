@@ -0,0 +1,161 @@
+package com.pd.pdaicodemother.utils;
+
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * SSE 事件编码工具
+ * 直接拼接 {"d": "..."} 信封，替代每个片段都创建 Map 再走 JSONUtil 序列化的方式
+ */
+public class SseEventEncoder {
+
+    /**
+     * 流结束事件（不可变，全局复用）
+     */
+    public static final ServerSentEvent<String> END_EVENT = ServerSentEvent.<String>builder()
+            .event("end")
+            .data("")
+            .build();
+
+    private static final String ENVELOPE_PREFIX = "{\"d\":\"";
+
+    private static final String ENVELOPE_SUFFIX = "\"}";
+
+    private static final char[] HEX_DIGITS = "0123456789abcdef".toCharArray();
+
+    /**
+     * 复用的缓冲区上限，超过后不再保留，避免线程长期持有大对象
+     */
+    private static final int MAX_REUSE_CAPACITY = 16 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUILDER_HOLDER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private SseEventEncoder() {
+    }
+
+    /**
+     * 将内容流编码为 SSE 事件流，并在末尾追加结束事件
+     * 片段合并由 StreamCoalescer 在处理器之前完成
+     *
+     * @param contentFlux 内容流
+     * @return SSE 事件流
+     */
+    public static Flux<ServerSentEvent<String>> encode(Flux<String> contentFlux) {
+        return contentFlux
+                .map(SseEventEncoder::toEvent)
+                .concatWith(Mono.just(END_EVENT));
+    }
+
+    /**
+     * 单个片段编码为 SSE 事件
+     *
+     * @param chunk 片段
+     * @return SSE 事件
+     */
+    public static ServerSentEvent<String> toEvent(String chunk) {
+        return ServerSentEvent.<String>builder()
+                .data(encodeData(chunk))
+                .build();
+    }
+
+    /**
+     * 单个片段编码为带 id 的 SSE 事件（用于断线续传）
+     *
+     * @param chunk 片段
+     * @param id    事件 id
+     * @return SSE 事件
+     */
+    public static ServerSentEvent<String> toEvent(String chunk, String id) {
+        return ServerSentEvent.<String>builder()
+                .id(id)
+                .data(encodeData(chunk))
+                .build();
+    }
+
+    /**
+     * 带 id 的流结束事件
+     *
+     * @param id 事件 id
+     * @return SSE 事件
+     */
+    public static ServerSentEvent<String> endEvent(String id) {
+        return ServerSentEvent.<String>builder()
+                .id(id)
+                .event(END_EVENT.event())
+                .data("")
+                .build();
+    }
+
+    /**
+     * 带 id 的生成失败事件（用于续传流：出错后正常结束连接，避免浏览器携带 Last-Event-ID 反复重连）
+     *
+     * @param message 失败原因
+     * @param id      事件 id
+     * @return SSE 事件
+     */
+    public static ServerSentEvent<String> errorEvent(String message, String id) {
+        return ServerSentEvent.<String>builder()
+                .id(id)
+                .event("gen-error")
+                .data(encodeData(message))
+                .build();
+    }
+
+    /**
+     * 生成 {"d": "..."} 格式的事件数据
+     *
+     * @param chunk 片段
+     * @return JSON 字符串
+     */
+    public static String encodeData(String chunk) {
+        int length = ENVELOPE_PREFIX.length() + ENVELOPE_SUFFIX.length() + (chunk == null ? 0 : chunk.length());
+        StringBuilder builder = BUILDER_HOLDER.get();
+        builder.setLength(0);
+        // 预留少量转义空间，通常不需要扩容
+        builder.ensureCapacity(length + (length >> 3));
+        builder.append(ENVELOPE_PREFIX);
+        appendEscaped(builder, chunk);
+        builder.append(ENVELOPE_SUFFIX);
+        String data = builder.toString();
+        if (builder.capacity() > MAX_REUSE_CAPACITY) {
+            BUILDER_HOLDER.remove();
+        }
+        return data;
+    }
+
+    /**
+     * 按 JSON 字符串规则转义
+     */
+    private static void appendEscaped(StringBuilder builder, String value) {
+        if (value == null) {
+            return;
+        }
+        int start = 0;
+        int length = value.length();
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            if (c >= ' ' && c != '"' && c != '\\' && c != '\u2028' && c != '\u2029') {
+                continue;
+            }
+            // 批量追加无需转义的部分
+            builder.append(value, start, i);
+            start = i + 1;
+            switch (c) {
+                case '"' -> builder.append("\\\"");
+                case '\\' -> builder.append("\\\\");
+                case '\n' -> builder.append("\\n");
+                case '\r' -> builder.append("\\r");
+                case '\t' -> builder.append("\\t");
+                case '\b' -> builder.append("\\b");
+                case '\f' -> builder.append("\\f");
+                default -> builder.append("\\u")
+                        .append(HEX_DIGITS[(c >> 12) & 0xF])
+                        .append(HEX_DIGITS[(c >> 8) & 0xF])
+                        .append(HEX_DIGITS[(c >> 4) & 0xF])
+                        .append(HEX_DIGITS[c & 0xF]);
+            }
+        }
+        builder.append(value, start, length);
+    }
+}
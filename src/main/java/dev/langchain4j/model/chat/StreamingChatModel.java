@@ -71,6 +71,16 @@ public interface StreamingChatModel {
                 ChatModelListenerUtils.onError(error, finalChatRequest, provider(), attributes, listeners);
                 handler.onError(error);
             }
+
+            @Override
+            public void onStreamOpened(AutoCloseable responseStream) {
+                handler.onStreamOpened(responseStream);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return handler.isCancelled();
+            }
         };
 
         onRequest(finalChatRequest, provider(), attributes, listeners);
@@ -58,4 +58,25 @@ public interface StreamingChatResponseHandler {
      * @param error The error that occurred
      */
     void onError(Throwable error);
+
+    /**
+     * Invoked by {@link StreamingChatModel} implementations once the HTTP response stream is open.
+     * Closing the given handle aborts the in-flight response right away,
+     * so a consumer that supports cancellation should keep it and close it when cancelling.
+     *
+     * @param responseStream handle to the in-flight response
+     */
+    default void onStreamOpened(AutoCloseable responseStream) {
+    }
+
+    /**
+     * Whether the consumer has cancelled the streaming.
+     * Implementations of {@link StreamingChatModel} should stop reading the response as soon as possible
+     * once this returns {@code true}.
+     *
+     * @return {@code true} if the streaming has been cancelled
+     */
+    default boolean isCancelled() {
+        return false;
+    }
 }
@@ -0,0 +1,96 @@
+package dev.langchain4j.model.openai;
+
+import dev.langchain4j.http.client.HttpClient;
+import dev.langchain4j.http.client.HttpClientBuilder;
+import dev.langchain4j.http.client.HttpRequest;
+import dev.langchain4j.http.client.SuccessfulHttpResponse;
+import dev.langchain4j.http.client.sse.ServerSentEventListener;
+import dev.langchain4j.http.client.sse.ServerSentEventParser;
+
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Decorates an {@link HttpClientBuilder} so that streaming requests expose their response body.
+ * <p>
+ * The caller binds a consumer with {@link #bind(Consumer, Runnable)} around the synchronous part of a streaming call;
+ * once the response arrives, the consumer receives a handle that closes the response body,
+ * which aborts the HTTP exchange even while the reading thread is blocked on the next chunk.
+ */
+class CancellableHttpClientBuilder implements HttpClientBuilder {
+
+    private static final ThreadLocal<Consumer<AutoCloseable>> STREAM_CONSUMER = new ThreadLocal<>();
+
+    private final HttpClientBuilder delegate;
+
+    CancellableHttpClientBuilder(HttpClientBuilder delegate) {
+        this.delegate = delegate;
+    }
+
+    /**
+     * Runs the given call with the consumer bound to the streaming requests it sends from the current thread.
+     */
+    static void bind(Consumer<AutoCloseable> streamConsumer, Runnable call) {
+        STREAM_CONSUMER.set(streamConsumer);
+        try {
+            call.run();
+        } finally {
+            STREAM_CONSUMER.remove();
+        }
+    }
+
+    @Override
+    public Duration connectTimeout() {
+        return delegate.connectTimeout();
+    }
+
+    @Override
+    public HttpClientBuilder connectTimeout(Duration timeout) {
+        delegate.connectTimeout(timeout);
+        return this;
+    }
+
+    @Override
+    public Duration readTimeout() {
+        return delegate.readTimeout();
+    }
+
+    @Override
+    public HttpClientBuilder readTimeout(Duration timeout) {
+        delegate.readTimeout(timeout);
+        return this;
+    }
+
+    @Override
+    public HttpClient build() {
+        return new CancellableHttpClient(delegate.build());
+    }
+
+    private static class CancellableHttpClient implements HttpClient {
+
+        private final HttpClient delegate;
+
+        private CancellableHttpClient(HttpClient delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public SuccessfulHttpResponse execute(HttpRequest request) {
+            return delegate.execute(request);
+        }
+
+        @Override
+        public void execute(HttpRequest request, ServerSentEventParser parser, ServerSentEventListener listener) {
+            // Captured on the calling thread: the body is usually parsed on a thread of the HTTP client
+            Consumer<AutoCloseable> streamConsumer = STREAM_CONSUMER.get();
+            if (streamConsumer == null) {
+                delegate.execute(request, parser, listener);
+                return;
+            }
+            delegate.execute(request, (body, bodyListener) -> {
+                streamConsumer.accept(body::close);
+                parser.parse(body, bodyListener);
+            }, listener);
+        }
+    }
+}
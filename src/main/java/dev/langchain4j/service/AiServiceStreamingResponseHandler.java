@@ -46,6 +46,7 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
     private final BiConsumer<Integer, ToolExecutionRequest> partialToolExecutionRequestHandler;
     private final BiConsumer<Integer, ToolExecutionRequest> completeToolExecutionRequestHandler;
     private final Consumer<ToolExecution> toolExecutionHandler;
+    private final Consumer<ChatResponse> intermediateResponseHandler;
     private final Consumer<ChatResponse> completeResponseHandler;
 
     private final Consumer<Throwable> errorHandler;
@@ -57,6 +58,7 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
     private final Map<String, ToolExecutor> toolExecutors;
     private final List<String> responseBuffer = new ArrayList<>();
     private final boolean hasOutputGuardrails;
+    private final StreamingCancellation cancellation;
 
     AiServiceStreamingResponseHandler(
             ChatExecutor chatExecutor,
@@ -66,6 +68,7 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
             BiConsumer<Integer, ToolExecutionRequest> partialToolExecutionRequestHandler,
             BiConsumer<Integer, ToolExecutionRequest> completeToolExecutionRequestHandler,
             Consumer<ToolExecution> toolExecutionHandler,
+            Consumer<ChatResponse> intermediateResponseHandler,
             Consumer<ChatResponse> completeResponseHandler,
             Consumer<Throwable> errorHandler,
             ChatMemory temporaryMemory,
@@ -73,7 +76,8 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
             List<ToolSpecification> toolSpecifications,
             Map<String, ToolExecutor> toolExecutors,
             GuardrailRequestParams commonGuardrailParams,
-            Object methodKey) {
+            Object methodKey,
+            StreamingCancellation cancellation) {
         this.chatExecutor = ensureNotNull(chatExecutor, "chatExecutor");
         this.context = ensureNotNull(context, "context");
         this.memoryId = ensureNotNull(memoryId, "memoryId");
@@ -84,6 +88,7 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
         this.completeToolExecutionRequestHandler = completeToolExecutionRequestHandler;
         this.completeResponseHandler = completeResponseHandler;
         this.toolExecutionHandler = toolExecutionHandler;
+        this.intermediateResponseHandler = intermediateResponseHandler;
         this.errorHandler = errorHandler;
 
         this.temporaryMemory = temporaryMemory;
@@ -93,10 +98,24 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
         this.toolSpecifications = copy(toolSpecifications);
         this.toolExecutors = copy(toolExecutors);
         this.hasOutputGuardrails = context.guardrailService().hasOutputGuardrails(methodKey);
+        this.cancellation = ensureNotNull(cancellation, "cancellation");
+    }
+
+    @Override
+    public void onStreamOpened(AutoCloseable responseStream) {
+        cancellation.attach(responseStream);
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancellation.isCancelled();
     }
 
     @Override
     public void onPartialResponse(String partialResponse) {
+        if (cancellation.isCancelled()) {
+            return;
+        }
         // If we're using output guardrails, then buffer the partial response until the guardrails have completed
         if (hasOutputGuardrails) {
             responseBuffer.add(partialResponse);
@@ -107,17 +126,34 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
 
     @Override
     public void onPartialToolExecutionRequest(int index, ToolExecutionRequest partialToolExecutionRequest) {
+        if (cancellation.isCancelled()) {
+            return;
+        }
         // If we're using output guardrails, then buffer the partial response until the guardrails have completed
         partialToolExecutionRequestHandler.accept(index, partialToolExecutionRequest);
     }
 
     @Override
     public void onCompleteResponse(ChatResponse completeResponse) {
+        if (cancellation.isCancelled()) {
+            // The consumer is gone: keep the (possibly truncated) response out of the memory
+            LOG.debug("Streaming cancelled, discarding the response for memory id {}", memoryId);
+            return;
+        }
         AiMessage aiMessage = completeResponse.aiMessage();
         addToMemory(aiMessage);
 
         if (aiMessage.hasToolExecutionRequests()) {
+            if (intermediateResponseHandler != null) {
+                intermediateResponseHandler.accept(completeResponse);
+            }
+
             for (ToolExecutionRequest toolExecutionRequest : aiMessage.toolExecutionRequests()) {
+                if (cancellation.isCancelled()) {
+                    // Answer the remaining requests so the memory stays valid for the next request
+                    addToMemory(ToolExecutionResultMessage.from(toolExecutionRequest, "Tool execution cancelled"));
+                    continue;
+                }
                 String toolName = toolExecutionRequest.name();
                 ToolExecutor toolExecutor = toolExecutors.get(toolName);
                 String toolExecutionResult = toolExecutor.execute(toolExecutionRequest, memoryId);
@@ -134,6 +170,11 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
                 }
             }
 
+            if (cancellation.isCancelled()) {
+                LOG.debug("Streaming cancelled, skipping the follow-up request for memory id {}", memoryId);
+                return;
+            }
+
             ChatRequest chatRequest = ChatRequest.builder()
                     .messages(messagesToSend(memoryId))
                     .toolSpecifications(toolSpecifications)
@@ -147,6 +188,7 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
                     partialToolExecutionRequestHandler,
                     completeToolExecutionRequestHandler,
                     toolExecutionHandler,
+                    intermediateResponseHandler,
                     completeResponseHandler,
                     errorHandler,
                     temporaryMemory,
@@ -154,7 +196,8 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
                     toolSpecifications,
                     toolExecutors,
                     commonGuardrailParams,
-                    methodKey);
+                    methodKey,
+                    cancellation);
 
             context.streamingChatModel.chat(chatRequest, handler);
         } else {
@@ -217,6 +260,11 @@ class AiServiceStreamingResponseHandler implements StreamingChatResponseHandler
 
     @Override
     public void onError(Throwable error) {
+        if (cancellation.isCancelled()) {
+            // Usually caused by closing the response stream on cancellation
+            LOG.debug("Ignored error after cancellation: {}", error.getMessage());
+            return;
+        }
         if (errorHandler != null) {
             try {
                 errorHandler.accept(error);
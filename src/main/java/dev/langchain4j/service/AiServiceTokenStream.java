@@ -39,6 +39,7 @@ public class AiServiceTokenStream implements TokenStream {
     private Consumer<String> partialResponseHandler;
     private Consumer<List<Content>> contentsHandler;
     private Consumer<ToolExecution> toolExecutionHandler;
+    private Consumer<ChatResponse> intermediateResponseHandler;
     private Consumer<ChatResponse> completeResponseHandler;
     private Consumer<Throwable> errorHandler;
     private BiConsumer<Integer, ToolExecutionRequest> partialToolExecutionRequestHandler;
@@ -48,9 +49,12 @@ public class AiServiceTokenStream implements TokenStream {
     private int onCompleteResponseInvoked;
     private int onRetrievedInvoked;
     private int onToolExecutedInvoked;
+    private int onIntermediateResponseInvoked;
     private int onErrorInvoked;
     private int ignoreErrorsInvoked;
 
+    private final StreamingCancellation cancellation = new StreamingCancellation();
+
     /**
      * Creates a new instance of {@link AiServiceTokenStream} with the given parameters.
      *
@@ -102,6 +106,13 @@ public class AiServiceTokenStream implements TokenStream {
         return this;
     }
 
+    @Override
+    public TokenStream onIntermediateResponse(Consumer<ChatResponse> intermediateResponseHandler) {
+        this.intermediateResponseHandler = intermediateResponseHandler;
+        this.onIntermediateResponseInvoked++;
+        return this;
+    }
+
     @Override
     public TokenStream onCompleteResponse(Consumer<ChatResponse> completionHandler) {
         this.completeResponseHandler = completionHandler;
@@ -145,6 +156,7 @@ public class AiServiceTokenStream implements TokenStream {
                 partialToolExecutionRequestHandler,
                 completeToolExecutionRequestHandler,
                 toolExecutionHandler,
+                intermediateResponseHandler,
                 completeResponseHandler,
                 errorHandler,
                 initTemporaryMemory(context, messages),
@@ -152,7 +164,8 @@ public class AiServiceTokenStream implements TokenStream {
                 toolSpecifications,
                 toolExecutors,
                 commonGuardrailParams,
-                methodKey);
+                methodKey,
+                cancellation);
 
         if (contentsHandler != null && retrievedContents != null) {
             contentsHandler.accept(retrievedContents);
@@ -161,6 +174,11 @@ public class AiServiceTokenStream implements TokenStream {
         context.streamingChatModel.chat(chatRequest, handler);
     }
 
+    @Override
+    public void cancel() {
+        cancellation.cancel();
+    }
+
     private void validateConfiguration() {
         if (onPartialResponseInvoked != 1) {
             throw new IllegalConfigurationException("onPartialResponse must be invoked on TokenStream exactly 1 time");
@@ -174,6 +192,10 @@ public class AiServiceTokenStream implements TokenStream {
         if (onToolExecutedInvoked > 1) {
             throw new IllegalConfigurationException("onToolExecuted can be invoked on TokenStream at most 1 time");
         }
+        if (onIntermediateResponseInvoked > 1) {
+            throw new IllegalConfigurationException(
+                    "onIntermediateResponse can be invoked on TokenStream at most 1 time");
+        }
         if (onErrorInvoked + ignoreErrorsInvoked != 1) {
             throw new IllegalConfigurationException(
                     "One of [onError, ignoreErrors] " + "must be invoked on TokenStream exactly 1 time");
@@ -0,0 +1,57 @@
+package dev.langchain4j.service;
+
+import dev.langchain4j.Internal;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cancellation state of a {@link TokenStream}, shared by the response handlers of all its rounds.
+ * Holds the response stream of the in-flight request so that cancelling closes it immediately
+ * instead of waiting for the next chunk to arrive.
+ */
+@Internal
+class StreamingCancellation {
+    private static final Logger LOG = LoggerFactory.getLogger(StreamingCancellation.class);
+
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+    private final AtomicReference<AutoCloseable> inFlight = new AtomicReference<>();
+
+    boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Marks the stream as cancelled and closes the in-flight response, if any.
+     */
+    void cancel() {
+        if (cancelled.compareAndSet(false, true)) {
+            closeInFlight();
+        }
+    }
+
+    /**
+     * Registers the response stream of a newly started round.
+     * If the stream has already been cancelled, the response is closed right away.
+     */
+    void attach(AutoCloseable responseStream) {
+        inFlight.set(responseStream);
+        if (cancelled.get()) {
+            closeInFlight();
+        }
+    }
+
+    private void closeInFlight() {
+        AutoCloseable responseStream = inFlight.getAndSet(null);
+        if (responseStream == null) {
+            return;
+        }
+        try {
+            responseStream.close();
+        } catch (Exception e) {
+            LOG.debug("Failed to close the response stream after cancellation: {}", e.getMessage());
+        }
+    }
+}
@@ -51,6 +51,18 @@ public interface TokenStream {
      */
     TokenStream onToolExecuted(Consumer<ToolExecution> toolExecuteHandler);
 
+    /**
+     * The provided consumer will be invoked when a language model finishes streaming an intermediate response,
+     * i.e. a response that requests tool executions and is followed by another request to the model.
+     * <p>
+     * The invocation happens before the requested tools are executed.
+     * The token usage of the {@link ChatResponse} covers this single round only.
+     *
+     * @param intermediateResponseHandler lambda that consumes intermediate {@link ChatResponse}s
+     * @return token stream instance used to configure or start stream processing
+     */
+    TokenStream onIntermediateResponse(Consumer<ChatResponse> intermediateResponseHandler);
+
     /**
      * The provided handler will be invoked when a language model finishes streaming a response.
      *
@@ -80,4 +92,13 @@ public interface TokenStream {
      * Will send a request to LLM and start response streaming.
      */
     void start();
+
+    /**
+     * Cancels the streaming started by {@link #start()}.
+     * The in-flight model response is closed, no further partial responses are delivered,
+     * pending tools are not executed and no further requests are sent to the model.
+     * Neither {@link #onCompleteResponse(Consumer)} nor {@link #onError(Consumer)} handlers are invoked afterwards.
+     */
+    default void cancel() {
+    }
 }
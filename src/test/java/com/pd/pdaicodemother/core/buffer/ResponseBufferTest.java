@@ -0,0 +1,37 @@
+package com.pd.pdaicodemother.core.buffer;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+class ResponseBufferTest {
+
+    @Test
+    void spillAndRelease(@TempDir Path tempDir) throws IOException {
+        ResponseBuffer responseBuffer = new ResponseBuffer(16, tempDir.toString());
+        StringBuilder expected = new StringBuilder();
+        for (int i = 0; i < 100; i++) {
+            String chunk = "片段" + i + "\n";
+            responseBuffer.append(chunk);
+            expected.append(chunk);
+        }
+        Assertions.assertTrue(responseBuffer.isSpilled());
+        Assertions.assertEquals(expected.length(), responseBuffer.length());
+        Assertions.assertEquals(expected.toString(), responseBuffer.toString());
+
+        // 最后一个使用方释放后删除溢出文件
+        responseBuffer.retain();
+        responseBuffer.release();
+        Assertions.assertEquals(expected.toString(), responseBuffer.toString());
+        responseBuffer.release();
+        try (Stream<Path> files = Files.list(tempDir)) {
+            Assertions.assertEquals(0, files.count());
+        }
+        Assertions.assertThrows(IllegalStateException.class, responseBuffer::retain);
+    }
+}
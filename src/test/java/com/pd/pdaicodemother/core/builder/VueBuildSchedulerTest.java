@@ -0,0 +1,104 @@
+package com.pd.pdaicodemother.core.builder;
+
+import com.pd.pdaicodemother.config.VueBuildSchedulerConfig;
+import com.pd.pdaicodemother.core.builder.VueBuildScheduler.BuildPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+class VueBuildSchedulerTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final StubProjectBuilder builder = new StubProjectBuilder();
+
+    private final VueBuildScheduler scheduler = new VueBuildScheduler();
+
+    @AfterEach
+    void tearDown() {
+        builder.release.countDown();
+        scheduler.shutdown();
+    }
+
+    @Test
+    void mergeAndPrioritizeQueuedBuilds() throws Exception {
+        startScheduler();
+        CompletableFuture<Boolean> first = scheduler.submit("a", BuildPriority.BACKGROUND);
+        Assertions.assertTrue(builder.started.await(5, TimeUnit.SECONDS));
+
+        // a 正在构建：新请求排在其后，重复请求合并，部署请求提升其优先级
+        CompletableFuture<Boolean> queuedA = scheduler.submit("a", BuildPriority.BACKGROUND);
+        Assertions.assertNotSame(first, queuedA);
+        Assertions.assertSame(queuedA, scheduler.submit("a", BuildPriority.DEPLOY));
+        // b、c 均为后台构建，c 合并部署请求后排到 b 前面
+        CompletableFuture<Boolean> queuedB = scheduler.submit("b", BuildPriority.BACKGROUND);
+        CompletableFuture<Boolean> queuedC = scheduler.submit("c", BuildPriority.BACKGROUND);
+        Assertions.assertSame(queuedC, scheduler.submit("c", BuildPriority.DEPLOY));
+        Assertions.assertEquals(2, meterRegistry.get("vue.build.merged").counter().count());
+
+        builder.release.countDown();
+        CompletableFuture.allOf(first, queuedA, queuedB, queuedC).get(5, TimeUnit.SECONDS);
+        Assertions.assertEquals(List.of("a", "a", "c", "b"), builder.builtPaths);
+        Assertions.assertTrue(queuedB.join());
+    }
+
+    @Test
+    void failPendingBuildsOnShutdown() throws Exception {
+        startScheduler();
+        CompletableFuture<Boolean> first = scheduler.submit("a", BuildPriority.DEPLOY);
+        Assertions.assertTrue(builder.started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Boolean> behindRunning = scheduler.submit("a", BuildPriority.DEPLOY);
+        CompletableFuture<Boolean> queued = scheduler.submit("b", BuildPriority.DEPLOY);
+
+        scheduler.shutdown();
+        Assertions.assertFalse(behindRunning.getNow(true));
+        Assertions.assertFalse(queued.getNow(true));
+        // 执行中的构建被中断
+        Assertions.assertFalse(first.get(5, TimeUnit.SECONDS));
+        Assertions.assertFalse(scheduler.submit("c", BuildPriority.DEPLOY).getNow(true));
+        Assertions.assertEquals(List.of("a"), builder.builtPaths);
+    }
+
+    private void startScheduler() {
+        VueBuildSchedulerConfig config = new VueBuildSchedulerConfig();
+        config.setConcurrency(1);
+        ReflectionTestUtils.setField(scheduler, "vueProjectBuilder", builder);
+        ReflectionTestUtils.setField(scheduler, "vueBuildSchedulerConfig", config);
+        ReflectionTestUtils.setField(scheduler, "meterRegistry", meterRegistry);
+        scheduler.start();
+    }
+
+    /**
+     * 记录构建顺序，首次构建阻塞到 release 放行
+     */
+    private static class StubProjectBuilder extends VueProjectBuilder {
+
+        private final List<String> builtPaths = Collections.synchronizedList(new ArrayList<>());
+
+        private final CountDownLatch started = new CountDownLatch(1);
+
+        private final CountDownLatch release = new CountDownLatch(1);
+
+        @Override
+        public boolean buildProject(String projectPath) {
+            builtPaths.add(projectPath);
+            started.countDown();
+            try {
+                release.await();
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.pd.pdaicodemother.core.parser;
+
+import com.pd.pdaicodemother.ai.model.HtmlCodeResult;
+import com.pd.pdaicodemother.ai.model.MultiFileCodeResult;
+import com.pd.pdaicodemother.core.parser.impl.HtmlCodeParser;
+import com.pd.pdaicodemother.core.parser.impl.HtmlStreamingCodeParser;
+import com.pd.pdaicodemother.core.parser.impl.MultiFileCodeParser;
+import com.pd.pdaicodemother.core.parser.impl.MultiFileStreamingCodeParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class StreamingCodeParserTest {
+
+    private static final String MULTI_FILE_REPLY = """
+            好的，下面是页面代码，注意 ```inline``` 不是代码块：
+            ```html
+            <div class="a">`x` and ``y``</div>
+            ```
+            ```css
+            .a { color: red; }
+            ```
+            ```javascript
+            console.log('ok');
+            ```
+            以上。
+            """;
+
+    @Test
+    void parseMultiFileInChunks() {
+        MultiFileCodeResult expected = new MultiFileCodeParser().parseCode(MULTI_FILE_REPLY);
+        for (int chunkSize : new int[]{1, 2, 3, 7, 64, MULTI_FILE_REPLY.length()}) {
+            MultiFileStreamingCodeParser parser = new MultiFileStreamingCodeParser();
+            feedInChunks(parser, MULTI_FILE_REPLY, chunkSize);
+            MultiFileCodeResult result = parser.finish();
+            Assertions.assertEquals(expected.getHtmlCode(), result.getHtmlCode());
+            Assertions.assertEquals(expected.getCssCode(), result.getCssCode());
+            Assertions.assertEquals(expected.getJsCode(), result.getJsCode());
+        }
+    }
+
+    @Test
+    void emitBlocksBeforeStreamEnds() {
+        MultiFileStreamingCodeParser parser = new MultiFileStreamingCodeParser();
+        List<String> completed = new ArrayList<>();
+        parser.onBlockComplete((language, code) -> completed.add(language));
+        parser.feed("```html\n<p></p>\n```\n```css\nbody{}\n``");
+        Assertions.assertEquals(List.of("html"), completed);
+        parser.feed("`\n```js\nlet a;\n```");
+        Assertions.assertEquals(List.of("html", "css", "js"), completed);
+        Assertions.assertTrue(parser.isComplete());
+    }
+
+    @Test
+    void fallbackToRawContentWithoutHtmlBlock() {
+        String reply = "<html><body>no fence</body></html>\n";
+        HtmlCodeResult expected = new HtmlCodeParser().parseCode(reply);
+        HtmlStreamingCodeParser parser = new HtmlStreamingCodeParser();
+        feedInChunks(parser, reply, 5);
+        Assertions.assertEquals(expected.getHtmlCode(), parser.finish().getHtmlCode());
+    }
+
+    private static void feedInChunks(StreamingCodeParser<?> parser, String content, int chunkSize) {
+        for (int i = 0; i < content.length(); i += chunkSize) {
+            parser.feed(content.substring(i, Math.min(content.length(), i + chunkSize)));
+        }
+    }
+}
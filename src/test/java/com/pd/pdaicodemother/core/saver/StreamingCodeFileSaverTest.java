@@ -0,0 +1,104 @@
+package com.pd.pdaicodemother.core.saver;
+
+import com.pd.pdaicodemother.ai.model.MultiFileCodeResult;
+import com.pd.pdaicodemother.core.parser.impl.MultiFileCodeParser;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+class StreamingCodeFileSaverTest {
+
+    private static final String MULTI_FILE_REPLY = """
+            好的，下面是页面代码：
+            ```html
+              <div class="a">你好 😀 `x`</div>
+
+            ```
+            ```css
+            .a { color: red; }
+            ```
+            ```javascript
+            console.log('ok');
+            ```
+            以上。
+            """;
+
+    @Test
+    void saveMultiFileInChunks(@TempDir Path tempDir) throws IOException {
+        MultiFileCodeResult expected = new MultiFileCodeParser().parseCode(MULTI_FILE_REPLY);
+        for (int chunkSize : new int[]{1, 2, 3, 7, 64, MULTI_FILE_REPLY.length()}) {
+            Path dir = Files.createDirectory(tempDir.resolve("multi_" + chunkSize));
+            StreamingCodeFileSaver saver = new StreamingCodeFileSaver(dir.toString(), language -> switch (language) {
+                case "html" -> "index.html";
+                case "css" -> "style.css";
+                case "js", "javascript" -> "script.js";
+                default -> null;
+            }, null, savedFileNames -> Assertions.assertEquals(3, savedFileNames.size()));
+            for (int i = 0; i < MULTI_FILE_REPLY.length(); i += chunkSize) {
+                saver.feed(MULTI_FILE_REPLY.substring(i, Math.min(MULTI_FILE_REPLY.length(), i + chunkSize)));
+            }
+            saver.finish();
+            Assertions.assertEquals(expected.getHtmlCode(), Files.readString(dir.resolve("index.html")));
+            Assertions.assertEquals(expected.getCssCode(), Files.readString(dir.resolve("style.css")));
+            Assertions.assertEquals(expected.getJsCode(), Files.readString(dir.resolve("script.js")));
+            // 临时文件均已重命名或清理
+            try (Stream<Path> files = Files.list(dir)) {
+                Assertions.assertEquals(3, files.count());
+            }
+        }
+    }
+
+    @Test
+    void fallbackAndAbort(@TempDir Path tempDir) throws IOException {
+        StreamingCodeFileSaver saver = new StreamingCodeFileSaver(tempDir.toString(),
+                language -> "html".equals(language) ? "index.html" : null, "index.html", savedFileNames -> {
+        });
+        saver.feed("  <p>没有代码块</p>\n");
+        saver.finish();
+        Assertions.assertEquals("<p>没有代码块</p>", Files.readString(tempDir.resolve("index.html")));
+
+        // 中途取消时不覆盖已有文件，也不留下临时文件
+        StreamingCodeFileSaver cancelled = new StreamingCodeFileSaver(tempDir.toString(),
+                language -> "html".equals(language) ? "index.html" : null, "index.html", savedFileNames -> {
+        });
+        cancelled.feed("```html\n<p>新内容");
+        cancelled.abort();
+        Assertions.assertEquals("<p>没有代码块</p>", Files.readString(tempDir.resolve("index.html")));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            Assertions.assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void keepPreviousFilesUntilValidated(@TempDir Path tempDir) throws IOException {
+        Files.writeString(tempDir.resolve("index.html"), "旧页面");
+        Files.writeString(tempDir.resolve("style.css"), "旧样式");
+        // html 代码块已闭合后取消：已有文件保持不变
+        StreamingCodeFileSaver cancelled = new StreamingCodeFileSaver(tempDir.toString(), language -> switch (language) {
+            case "html" -> "index.html";
+            case "css" -> "style.css";
+            default -> null;
+        }, null, savedFileNames -> {
+        });
+        cancelled.feed("```html\n<p>新页面</p>\n```\n```css\n.a {");
+        cancelled.abort();
+        Assertions.assertEquals("旧页面", Files.readString(tempDir.resolve("index.html")));
+
+        // 整体校验失败：已闭合的代码块也不覆盖已有文件
+        StreamingCodeFileSaver rejected = new StreamingCodeFileSaver(tempDir.toString(),
+                language -> "html".equals(language) ? "index.html" : null, null, savedFileNames -> {
+            throw new IllegalStateException("缺少文件");
+        });
+        rejected.feed("```html\n<p>新页面</p>\n```\n");
+        Assertions.assertThrows(IllegalStateException.class, rejected::finish);
+        Assertions.assertEquals("旧页面", Files.readString(tempDir.resolve("index.html")));
+        try (Stream<Path> files = Files.list(tempDir)) {
+            Assertions.assertEquals(2, files.count());
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package com.pd.pdaicodemother.loadtest;
+
+import cn.hutool.core.io.FileUtil;
+import cn.hutool.json.JSONObject;
+import cn.hutool.json.JSONUtil;
+import com.pd.pdaicodemother.model.entity.App;
+import com.pd.pdaicodemother.model.enums.CodeGenTypeEnum;
+import com.pd.pdaicodemother.service.AppService;
+import jakarta.annotation.Resource;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 生成接口端到端压测
+ * 使用 mock-llm 模拟模型，多个模拟用户并发打开 /app/chat/gen/code SSE 流，
+ * 按并发档位记录首字节时间、事件间隔、总耗时以及服务端 CPU、堆内存和 GC，结果写入 target/loadtest-result.json。
+ * 服务端资源通过被测服务的 /actuator/prometheus 采样。默认压测进程内启动的服务，此时压测客户端与服务共用一个 JVM，
+ * 资源数据是整个进程的（结果中 server.scope 为 whole-process）；要得到只属于服务的数据，
+ * 先以 local,mock-llm 配置单独启动服务，再通过 loadtest.target（如 http://localhost:8123/api）指定其地址。
+ * 需要本地 MySQL 和 Redis，运行方式：mvn -Ploadtest test
+ * 可通过系统属性调整：loadtest.target、loadtest.users、loadtest.concurrency（如 1,4,16,32）、loadtest.types、loadtest.rounds，
+ * 模拟模型的延迟和回复大小使用 mock-llm.* 属性
+ */
+@Slf4j
+@Tag("loadtest")
+@ActiveProfiles({"local", "mock-llm"})
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class GenerationLoadTest {
+
+    private static final String PASSWORD = "loadtest123";
+
+    @LocalServerPort
+    private int port;
+
+    @Resource
+    private AppService appService;
+
+    /**
+     * 外部被测服务的地址（含 /api 前缀），为空时压测进程内启动的服务
+     */
+    private final String externalTarget = System.getProperty("loadtest.target");
+
+    @Test
+    void concurrentGeneration() throws Exception {
+        int users = Integer.getInteger("loadtest.users", 8);
+        int rounds = Integer.getInteger("loadtest.rounds", 2);
+        List<Integer> concurrencyLevels = Arrays.stream(System.getProperty("loadtest.concurrency", "1,4,8,16").split(","))
+                .map(String::trim)
+                .map(Integer::valueOf)
+                .toList();
+        List<CodeGenTypeEnum> types = Arrays.stream(System.getProperty("loadtest.types", "html,multi_file").split(","))
+                .map(String::trim)
+                .map(CodeGenTypeEnum::getEnumByValue)
+                .toList();
+        // 1. 注册并登录模拟用户，每个用户为每种类型创建一个应用
+        String runId = Long.toString(System.currentTimeMillis(), 36);
+        List<Target> targets = new ArrayList<>();
+        for (int i = 0; i < users; i++) {
+            SyntheticUser user = new SyntheticUser("loadtest_" + runId + "_" + i);
+            user.registerAndLogin();
+            for (CodeGenTypeEnum type : types) {
+                targets.add(new Target(user, user.createApp(type), type));
+            }
+        }
+        log.info("压测准备完成，用户 {} 个，应用 {} 个", users, targets.size());
+        // 2. 按并发档位依次压测
+        List<Map<String, Object>> results = new ArrayList<>();
+        for (int concurrency : concurrencyLevels) {
+            results.add(runLevel(targets, Math.min(concurrency, targets.size()), rounds));
+        }
+        // 3. 输出结果
+        String report = JSONUtil.toJsonPrettyStr(Map.of("runId", runId, "levels", results));
+        FileUtil.writeUtf8String(report, System.getProperty("user.dir") + "/target/loadtest-result.json");
+        log.info("压测结果：\n{}", report);
+        Assertions.assertFalse(results.isEmpty());
+    }
+
+    /**
+     * 以固定并发执行 concurrency * rounds 次生成
+     */
+    private Map<String, Object> runLevel(List<Target> targets, int concurrency, int rounds) throws Exception {
+        ServerSampler sampler = new ServerSampler(baseUrl(), externalTarget == null ? "whole-process" : "server-process");
+        List<StreamResult> streamResults = Collections.synchronizedList(new ArrayList<>());
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        // 每个并发槽使用不同的应用，避免同一应用的生成租约互相拒绝
+        for (int slot = 0; slot < concurrency; slot++) {
+            Target target = targets.get(slot);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int round = 0; round < rounds; round++) {
+                    streamResults.add(target.user.generate(target.appId, target.type));
+                }
+                return null;
+            }));
+        }
+        sampler.start();
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+        executor.shutdown();
+        Map<String, Object> server = sampler.stop();
+
+        List<Long> ttfb = new ArrayList<>();
+        List<Long> gaps = new ArrayList<>();
+        List<Long> totals = new ArrayList<>();
+        long failures = 0;
+        long events = 0;
+        for (StreamResult result : streamResults) {
+            if (!result.success) {
+                failures++;
+                continue;
+            }
+            ttfb.add(result.ttfbMs);
+            totals.add(result.totalMs);
+            gaps.addAll(result.gapsMs);
+            events += result.events;
+        }
+        Map<String, Object> level = new LinkedHashMap<>();
+        level.put("concurrency", concurrency);
+        level.put("streams", streamResults.size());
+        level.put("failures", failures);
+        level.put("elapsedMs", elapsedMs);
+        level.put("streamsPerSecond", elapsedMs == 0 ? 0 : streamResults.size() * 1000.0 / elapsedMs);
+        level.put("events", events);
+        level.put("ttfbMs", percentiles(ttfb));
+        level.put("eventGapMs", percentiles(gaps));
+        level.put("totalMs", percentiles(totals));
+        level.put("server", server);
+        log.info("并发 {}：{}", concurrency, level);
+        return level;
+    }
+
+    private String baseUrl() {
+        return externalTarget != null ? externalTarget : "http://localhost:" + port + "/api";
+    }
+
+    private static Map<String, Long> percentiles(List<Long> values) {
+        Map<String, Long> result = new LinkedHashMap<>();
+        if (values.isEmpty()) {
+            return result;
+        }
+        List<Long> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        result.put("p50", sorted.get((int) (sorted.size() * 0.50)));
+        result.put("p95", sorted.get(Math.min(sorted.size() - 1, (int) (sorted.size() * 0.95))));
+        result.put("p99", sorted.get(Math.min(sorted.size() - 1, (int) (sorted.size() * 0.99))));
+        result.put("max", sorted.getLast());
+        return result;
+    }
+
+    private record Target(SyntheticUser user, long appId, CodeGenTypeEnum type) {
+    }
+
+    private record StreamResult(boolean success, long ttfbMs, long totalMs, List<Long> gapsMs, long events) {
+    }
+
+    /**
+     * 模拟用户，持有独立的会话 Cookie
+     */
+    private class SyntheticUser {
+
+        private final String account;
+
+        private final HttpClient client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        SyntheticUser(String account) {
+            this.account = account;
+        }
+
+        void registerAndLogin() throws Exception {
+            post("/user/register", Map.of("userAccount", account, "userPassword", PASSWORD, "checkPassword", PASSWORD));
+            post("/user/login", Map.of("userAccount", account, "userPassword", PASSWORD));
+        }
+
+        long createApp(CodeGenTypeEnum type) throws Exception {
+            JSONObject response = post("/app/add", Map.of("initPrompt", "压测应用 " + type.getValue()));
+            long appId = response.getLong("data");
+            // 模拟模型的路由结果固定，直接指定生成类型
+            App app = new App();
+            app.setId(appId);
+            app.setCodeGenType(type.getValue());
+            appService.updateById(app);
+            return appId;
+        }
+
+        StreamResult generate(long appId, CodeGenTypeEnum type) {
+            String message = URLEncoder.encode("生成一个" + type.getText() + "的示例页面", StandardCharsets.UTF_8);
+            HttpRequest request = HttpRequest.newBuilder(uri("/app/chat/gen/code?appId=" + appId + "&message=" + message))
+                    .header("Accept", "text/event-stream")
+                    .GET()
+                    .build();
+            long begin = System.nanoTime();
+            try {
+                HttpResponse<InputStream> response = client.send(request, HttpResponse.BodyHandlers.ofInputStream());
+                boolean receivedEvent = false;
+                long firstEvent = 0;
+                long lastEvent = 0;
+                long events = 0;
+                List<Long> gaps = new ArrayList<>();
+                try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        if (!line.startsWith("data:")) {
+                            continue;
+                        }
+                        long now = System.nanoTime();
+                        if (!receivedEvent) {
+                            receivedEvent = true;
+                            firstEvent = now;
+                        } else {
+                            gaps.add(TimeUnit.NANOSECONDS.toMillis(now - lastEvent));
+                        }
+                        lastEvent = now;
+                        events++;
+                    }
+                }
+                long end = System.nanoTime();
+                boolean success = response.statusCode() == 200 && receivedEvent;
+                return new StreamResult(success,
+                        success ? TimeUnit.NANOSECONDS.toMillis(firstEvent - begin) : 0,
+                        TimeUnit.NANOSECONDS.toMillis(end - begin), gaps, events);
+            } catch (Exception e) {
+                log.warn("生成请求失败，appId: {}, 错误: {}", appId, e.getMessage());
+                return new StreamResult(false, 0, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin), List.of(), 0);
+            }
+        }
+
+        private JSONObject post(String path, Map<String, Object> body) throws Exception {
+            HttpRequest request = HttpRequest.newBuilder(uri(path))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(JSONUtil.toJsonStr(body)))
+                    .build();
+            JSONObject response = JSONUtil.parseObj(client.send(request, HttpResponse.BodyHandlers.ofString()).body());
+            Assertions.assertEquals(0, response.getInt("code", -1).intValue(), path + " 请求失败: " + response.getStr("message"));
+            return response;
+        }
+
+        private URI uri(String path) {
+            return URI.create(baseUrl() + path);
+        }
+    }
+
+    /**
+     * 服务端资源采样，定时读取被测服务的 Prometheus 端点，不依赖与服务处于同一进程
+     */
+    private static class ServerSampler {
+
+        private final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+        private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+        private final List<Double> cpuSamples = Collections.synchronizedList(new ArrayList<>());
+
+        private final String metricsUrl;
+
+        /**
+         * 数据范围：whole-process 表示包含压测客户端本身，server-process 表示只有被测服务
+         */
+        private final String scope;
+
+        private volatile double peakHeapBytes;
+
+        private double gcCountBefore;
+
+        private double gcSecondsBefore;
+
+        ServerSampler(String baseUrl, String scope) {
+            this.metricsUrl = baseUrl + "/actuator/prometheus";
+            this.scope = scope;
+        }
+
+        void start() {
+            String metrics = scrape();
+            gcCountBefore = sum(metrics, "jvm_gc_pause_seconds_count", null);
+            gcSecondsBefore = sum(metrics, "jvm_gc_pause_seconds_sum", null);
+            scheduler.scheduleAtFixedRate(() -> {
+                String sample = scrape();
+                if (sample.isEmpty()) {
+                    return;
+                }
+                double cpu = sum(sample, "process_cpu_usage", null);
+                if (cpu >= 0) {
+                    cpuSamples.add(cpu);
+                }
+                peakHeapBytes = Math.max(peakHeapBytes, sum(sample, "jvm_memory_used_bytes", "area=\"heap\""));
+            }, 0, 500, TimeUnit.MILLISECONDS);
+        }
+
+        Map<String, Object> stop() {
+            scheduler.shutdownNow();
+            String metrics = scrape();
+            Map<String, Object> server = new LinkedHashMap<>();
+            server.put("scope", scope);
+            server.put("cpuAvg", cpuSamples.stream().mapToDouble(Double::doubleValue).average().orElse(0));
+            server.put("cpuMax", cpuSamples.stream().mapToDouble(Double::doubleValue).max().orElse(0));
+            server.put("peakHeapMb", (long) peakHeapBytes / 1024 / 1024);
+            server.put("gcCount", (long) (sum(metrics, "jvm_gc_pause_seconds_count", null) - gcCountBefore));
+            server.put("gcTimeMs", (long) ((sum(metrics, "jvm_gc_pause_seconds_sum", null) - gcSecondsBefore) * 1000));
+            return server;
+        }
+
+        private String scrape() {
+            try {
+                HttpRequest request = HttpRequest.newBuilder(URI.create(metricsUrl)).GET().build();
+                return client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+            } catch (Exception e) {
+                log.warn("读取服务端指标失败: {}", e.getMessage());
+                return "";
+            }
+        }
+
+        /**
+         * 累加指定指标所有序列的值（可按标签片段过滤）
+         */
+        private static double sum(String metrics, String name, String labelFilter) {
+            double total = 0;
+            for (String line : metrics.split("\n")) {
+                if (line.startsWith("#") || !line.startsWith(name)) {
+                    continue;
+                }
+                int nameEnd = line.indexOf('{') >= 0 ? line.indexOf('{') : line.indexOf(' ');
+                if (nameEnd != name.length() || (labelFilter != null && !line.contains(labelFilter))) {
+                    continue;
+                }
+                String[] parts = line.trim().split(" ");
+                try {
+                    total += Double.parseDouble(parts[parts.length - 1]);
+                } catch (NumberFormatException ignored) {
+                    // 格式异常的行直接跳过
+                }
+            }
+            return total;
+        }
+    }
+}
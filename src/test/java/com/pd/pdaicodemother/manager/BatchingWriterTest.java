@@ -0,0 +1,47 @@
+package com.pd.pdaicodemother.manager;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+class BatchingWriterTest {
+
+    @Test
+    void writeQueuedRecordsInBatchesBeforeShutdown() {
+        List<Integer> written = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> batchSizes = Collections.synchronizedList(new ArrayList<>());
+        BatchingWriter<Integer> writer = new BatchingWriter<>("test-writer", "测试记录", batch -> {
+            batchSizes.add(batch.size());
+            written.addAll(batch);
+            return batch.size();
+        });
+        writer.start(100, 10, 100);
+        IntStream.range(0, 50).forEach(i -> Assertions.assertTrue(writer.submit(i)));
+        writer.shutdown(5000);
+        Assertions.assertEquals(IntStream.range(0, 50).boxed().toList(), written);
+        Assertions.assertTrue(batchSizes.stream().allMatch(size -> size <= 10));
+        Assertions.assertEquals(50, writer.getWrittenCount());
+        Assertions.assertEquals(0, writer.getFailedCount());
+    }
+
+    @Test
+    void writeSynchronouslyWhenNotStarted() {
+        List<String> written = new ArrayList<>();
+        BatchingWriter<String> writer = new BatchingWriter<>("test-writer", "测试记录", batch -> {
+            if (batch.contains("bad")) {
+                throw new IllegalStateException("写入失败");
+            }
+            written.addAll(batch);
+            return batch.size();
+        });
+        Assertions.assertTrue(writer.submit("ok"));
+        Assertions.assertFalse(writer.submit("bad"));
+        Assertions.assertEquals(List.of("ok"), written);
+        Assertions.assertEquals(1, writer.getWrittenCount());
+        Assertions.assertEquals(1, writer.getFailedCount());
+    }
+}
@@ -0,0 +1,92 @@
+package com.pd.pdaicodemother.manager;
+
+import com.pd.pdaicodemother.config.GenerationStreamConfig;
+import com.pd.pdaicodemother.exception.BusinessException;
+import com.pd.pdaicodemother.exception.ErrorCode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class GenerationStreamRegistryTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void resumeAfterReceivedEvents() {
+        GenerationStreamRegistry registry = createRegistry(100, 30000);
+        List<ServerSentEvent<String>> events = registry.start(1L, 2L, Flux.just("a", "b", "c"))
+                .collectList().block(TIMEOUT);
+        Assertions.assertNotNull(events);
+        // 3 个内容事件 + 结束事件
+        Assertions.assertEquals(4, events.size());
+
+        List<ServerSentEvent<String>> resumed = registry.resume(events.get(1).id(), 1L, 2L)
+                .collectList().block(TIMEOUT);
+        Assertions.assertNotNull(resumed);
+        Assertions.assertEquals(events.subList(2, 4).stream().map(ServerSentEvent::id).toList(),
+                resumed.stream().map(ServerSentEvent::id).toList());
+        Assertions.assertEquals("end", resumed.get(resumed.size() - 1).event());
+        Assertions.assertEquals(1, meterRegistry.get("generation.stream.resumed").functionCounter().count());
+
+        BusinessException exception = Assertions.assertThrows(BusinessException.class,
+                () -> registry.resume(events.get(1).id(), 1L, 3L));
+        Assertions.assertEquals(ErrorCode.NO_AUTH_ERROR.getCode(), exception.getCode());
+    }
+
+    @Test
+    void rejectResumeBeyondRetainedEvents() {
+        GenerationStreamRegistry registry = createRegistry(2, 30000);
+        List<ServerSentEvent<String>> events = registry.start(1L, 2L, Flux.just("a", "b", "c", "d"))
+                .collectList().block(TIMEOUT);
+        Assertions.assertNotNull(events);
+        // 只保留最近 2 个事件：序号 4（内容 d）和 5（结束事件）
+        Assertions.assertEquals(2, events.size());
+        String eventId = events.get(0).id();
+        String generationId = eventId.substring(0, eventId.lastIndexOf('-'));
+        Assertions.assertEquals(generationId + "-4", eventId);
+
+        BusinessException exception = Assertions.assertThrows(BusinessException.class,
+                () -> registry.resume(generationId + "-2", 1L, 2L));
+        Assertions.assertEquals(ErrorCode.OPERATION_ERROR.getCode(), exception.getCode());
+
+        List<ServerSentEvent<String>> resumed = registry.resume(generationId + "-3", 1L, 2L)
+                .collectList().block(TIMEOUT);
+        Assertions.assertNotNull(resumed);
+        Assertions.assertEquals(2, resumed.size());
+    }
+
+    @Test
+    void cancelGenerationAfterGracePeriodWithoutSubscribers() throws InterruptedException {
+        GenerationStreamRegistry registry = createRegistry(100, 50);
+        AtomicBoolean cancelled = new AtomicBoolean();
+        registry.start(1L, 2L, Flux.<String>never().doOnCancel(() -> cancelled.set(true)));
+        Assertions.assertEquals(1, registry.getStreamCount());
+
+        long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+        while (!cancelled.get() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(cancelled.get());
+        Assertions.assertEquals(0, registry.getStreamCount());
+    }
+
+    private GenerationStreamRegistry createRegistry(int maxEvents, long detachGraceMs) {
+        GenerationStreamConfig config = new GenerationStreamConfig();
+        config.setMaxEvents(maxEvents);
+        config.setDetachGraceMs(detachGraceMs);
+        GenerationStreamRegistry registry = new GenerationStreamRegistry();
+        ReflectionTestUtils.setField(registry, "generationStreamConfig", config);
+        ReflectionTestUtils.setField(registry, "meterRegistry", meterRegistry);
+        registry.bindMetrics();
+        return registry;
+    }
+}
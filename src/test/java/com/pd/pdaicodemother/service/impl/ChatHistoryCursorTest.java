@@ -0,0 +1,33 @@
+package com.pd.pdaicodemother.service.impl;
+
+import com.pd.pdaicodemother.exception.BusinessException;
+import com.pd.pdaicodemother.model.entity.ChatHistory;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+class ChatHistoryCursorTest {
+
+    @Test
+    void encodeDecodeRoundTrip() {
+        ChatHistory chatHistory = ChatHistory.builder()
+                .id(1234567890123L)
+                .createTime(LocalDateTime.of(2025, 8, 1, 12, 30, 59))
+                .build();
+        String cursor = ChatHistoryCursor.encode(chatHistory);
+        ChatHistoryCursor decoded = ChatHistoryCursor.decode(cursor);
+        Assertions.assertEquals(chatHistory.getCreateTime(), decoded.createTime());
+        Assertions.assertEquals(chatHistory.getId(), decoded.id());
+        Assertions.assertEquals(cursor, ChatHistoryCursor.encode(ChatHistory.builder()
+                .id(decoded.id())
+                .createTime(decoded.createTime())
+                .build()));
+    }
+
+    @Test
+    void rejectMalformedCursor() {
+        Assertions.assertThrows(BusinessException.class, () -> ChatHistoryCursor.decode("abc"));
+        Assertions.assertThrows(BusinessException.class, () -> ChatHistoryCursor.decode("123_"));
+    }
+}